@@ -0,0 +1,267 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import simulation.*;
+
+public class BatchRunner {
+    private static final String USAGE = """
+            Використання:
+              java DockSimulation --scenarios <файл.csv> [параметри]
+              java DockSimulation --grid "passenger=1:5:0.5;boat=2,4,8;capacity=10,20;terminal=true,false" [параметри]
+              java DockSimulation --route "docks=20;passenger=3;travel=4;headway=5;fleet=8;capacity=30;turnaround=15" [параметри]
+            Параметри:
+              --format csv|json     формат виводу (за замовчуванням csv)
+              --replications N      кількість днів на сценарій (за замовчуванням 1000)
+              --seed S              зерно генератора (за замовчуванням випадкове)
+              --threads T           кількість потоків (за замовчуванням кількість ядер)
+              --search              додатково шукати достатній інтервал між катерами
+            Файл сценаріїв: рядки passengerInterval,boatInterval,maxPassengers,terminalStop
+            Маршрут: passenger і travel приймають одне значення або список через кому для кожного причалу""";
+
+    private static final String CSV_HEADER = "scenario,passengerInterval,boatInterval,maxPassengers,terminalStop,replications,"
+            + "meanWaiting,waitingCiLow,waitingCiHigh,p95Waiting,meanPeak,peakCiLow,peakCiHigh";
+
+    private final int replications;
+    private final long seed;
+    private final int threads;
+    private final boolean json;
+    private final boolean search;
+    private final Writer out;
+
+    BatchRunner(int replications, long seed, int threads, boolean json, boolean search, Writer out) {
+        this.replications = replications;
+        this.seed = seed;
+        this.threads = threads;
+        this.json = json;
+        this.search = search;
+        this.out = out;
+    }
+
+    public static int run(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--scenarios", "--grid", "--route", "--format", "--replications", "--seed", "--threads" -> {
+                        if (i + 1 >= args.length) throw new IllegalArgumentException("Відсутнє значення для " + args[i]);
+                        options.put(args[i], args[++i]);
+                    }
+                    case "--search" -> options.put(args[i], "true");
+                    case "--help", "-h" -> {
+                        System.out.println(USAGE);
+                        return 0;
+                    }
+                    default -> throw new IllegalArgumentException("Невідомий параметр: " + args[i]);
+                }
+            }
+            long sources = Stream.of("--scenarios", "--grid", "--route").filter(options::containsKey).count();
+            if (sources != 1) {
+                throw new IllegalArgumentException("Вкажіть рівно одне з --scenarios, --grid або --route");
+            }
+            String format = options.getOrDefault("--format", "csv");
+            if (!format.equals("csv") && !format.equals("json")) throw new IllegalArgumentException("Невідомий формат: " + format);
+
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            BatchRunner runner = new BatchRunner(
+                    positiveInt(options.getOrDefault("--replications", "1000"), "--replications"),
+                    options.containsKey("--seed") ? Long.parseLong(options.get("--seed")) : System.nanoTime(),
+                    positiveInt(options.getOrDefault("--threads", String.valueOf(Runtime.getRuntime().availableProcessors())), "--threads"),
+                    format.equals("json"),
+                    options.containsKey("--search"),
+                    out);
+
+            if (options.containsKey("--route")) {
+                runner.runRoute(RouteSimulator.parse(options.get("--route")));
+            } else if (options.containsKey("--grid")) {
+                runner.runAll(ScenarioGrid.parse(options.get("--grid")));
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(Path.of(options.get("--scenarios")), StandardCharsets.UTF_8)) {
+                    runner.runAll(new ScenarioFileIterator(reader));
+                }
+            }
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Помилка вводу/виводу: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    void runAll(Iterator<DockParameters> scenarios) throws IOException, InterruptedException {
+        if (!json) writeLine(search ? CSV_HEADER + ",sufficientInterval,searchSimulations" : CSV_HEADER);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            long index = 0;
+            while (scenarios.hasNext() && failure.get() == null) {
+                DockParameters parameters = scenarios.next();
+                long scenario = index++;
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        writeLine(evaluate(scenario, parameters));
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        out.flush();
+
+        Throwable error = failure.get();
+        if (error instanceof IOException e) throw e;
+        if (error instanceof RuntimeException e) throw e;
+        if (error != null) throw new IllegalStateException(error);
+    }
+
+    void runRoute(RouteSimulator route) throws IOException {
+        RouteSimulator.Summary summary = IntStream.range(0, replications)
+                .parallel()
+                .collect(() -> new RouteSimulator.Summary(route.getDockCount()),
+                        (s, i) -> s.accept(route.run(DockSimulator.DAY_MINUTES, ReplicationEngine.randomFor(seed, i))),
+                        RouteSimulator.Summary::combine);
+
+        List<String> names = List.of("dock", "passengers", "meanWaiting", "waitingCiLow", "waitingCiHigh",
+                "meanPeak", "peakCiLow", "peakCiHigh", "meanDepartingLoad", "missedDispatches");
+        if (!json) writeLine(String.join(",", names));
+        for (int dock = 0; dock < summary.getDockCount(); dock++) {
+            Statistics waiting = summary.getWaitingTime(dock);
+            Statistics peak = summary.getPeakOccupancy(dock);
+            double waitingHalfWidth = waiting.getConfidenceHalfWidth95();
+            double peakHalfWidth = peak.getConfidenceHalfWidth95();
+            List<Object> values = List.of(dock, waiting.getCount(),
+                    waiting.getMean(), waiting.getMean() - waitingHalfWidth, waiting.getMean() + waitingHalfWidth,
+                    peak.getMean(), peak.getMean() - peakHalfWidth, peak.getMean() + peakHalfWidth,
+                    summary.getDepartingLoad(dock).getMean(), summary.getMissedDispatches().getMean());
+            writeLine(json ? toJson(names, values) : toCsv(values));
+        }
+        out.flush();
+    }
+
+    private String evaluate(long scenario, DockParameters parameters) {
+        ReplicationEngine.Summary summary = new ReplicationEngine(parameters, seed).run(replications, false);
+        Statistics waiting = summary.getWaitingTime();
+        Statistics peak = summary.getPeakOccupancy();
+        double waitingHalfWidth = waiting.getConfidenceHalfWidth95();
+        double peakHalfWidth = peak.getConfidenceHalfWidth95();
+
+        List<String> names = new ArrayList<>(List.of("scenario", "passengerInterval", "boatInterval", "maxPassengers", "terminalStop",
+                "replications", "meanWaiting", "waitingCiLow", "waitingCiHigh", "p95Waiting", "meanPeak", "peakCiLow", "peakCiHigh"));
+        List<Object> values = new ArrayList<>(List.of(scenario, parameters.avgPassengerInterval(), parameters.avgBoatInterval(),
+                parameters.maxPassengersOnDock(), parameters.terminalStop(), replications,
+                waiting.getMean(), waiting.getMean() - waitingHalfWidth, waiting.getMean() + waitingHalfWidth,
+                summary.getWaitingHistogram().getValueAtPercentile(95),
+                peak.getMean(), peak.getMean() - peakHalfWidth, peak.getMean() + peakHalfWidth));
+        if (search) {
+            IntervalSearch.Result result = DockSimulation.findSufficientBoatInterval(
+                    parameters.avgPassengerInterval(), parameters.maxPassengersOnDock(), parameters.terminalStop(), seed);
+            names.addAll(List.of("sufficientInterval", "searchSimulations"));
+            values.addAll(List.of(result.boatInterval(), result.simulations()));
+        }
+        return json ? toJson(names, values) : toCsv(values);
+    }
+
+    private static String toCsv(List<Object> values) {
+        StringJoiner line = new StringJoiner(",");
+        for (Object value : values) {
+            line.add(value instanceof Double d && d.isNaN() ? "" : String.valueOf(value));
+        }
+        return line.toString();
+    }
+
+    private static String toJson(List<String> names, List<Object> values) {
+        StringJoiner line = new StringJoiner(",", "{", "}");
+        for (int i = 0; i < names.size(); i++) {
+            Object value = values.get(i);
+            boolean missing = value instanceof Double d && (d.isNaN() || d.isInfinite());
+            line.add("\"" + names.get(i) + "\":" + (missing ? "null" : value));
+        }
+        return line.toString();
+    }
+
+    private void writeLine(String line) throws IOException {
+        synchronized (out) {
+            out.write(line);
+            out.write(System.lineSeparator());
+            out.flush();
+        }
+    }
+
+    private static int positiveInt(String value, String option) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result > 0) return result;
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(option + " має бути додатнім цілим числом: " + value);
+    }
+
+    private static class ScenarioFileIterator implements Iterator<DockParameters> {
+        private final BufferedReader reader;
+        private DockParameters pending;
+        private int lineNumber;
+
+        ScenarioFileIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (pending != null) return true;
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    line = line.trim();
+                    if (line.isEmpty() || line.startsWith("#") || Character.isLetter(line.charAt(0))) continue;
+                    pending = parse(line);
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public DockParameters next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            DockParameters next = pending;
+            pending = null;
+            return next;
+        }
+
+        private DockParameters parse(String line) {
+            String[] fields = line.split("[,;]");
+            try {
+                if (fields.length < 3 || fields.length > 4) throw new IllegalArgumentException();
+                double passenger = Double.parseDouble(fields[0].trim());
+                double boat = Double.parseDouble(fields[1].trim());
+                int capacity = Integer.parseInt(fields[2].trim());
+                boolean terminal = fields.length < 4 || ScenarioGrid.parseBoolean(fields[3]);
+                if (!(passenger > 0) || !(boat > 0) || capacity <= 0) throw new IllegalArgumentException();
+                return new DockParameters(passenger, boat, capacity, terminal);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Некоректний сценарій у рядку " + lineNumber + ": " + line);
+            }
+        }
+    }
+}
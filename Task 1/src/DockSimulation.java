@@ -1,67 +1,59 @@
 import java.util.*;
+import simulation.*;
 
 public class DockSimulation {
-    private static final int DAY_HOURS = 24;
-
     public static void main(String[] args) {
+        if (args.length > 0) {
+            System.exit(BatchRunner.run(args));
+        }
         Scanner scanner = new Scanner(System.in);
 
         double avgPassengerInterval = getValidDoubleInput(scanner, "Введіть середній час між появою пасажирів (в хвилинах): ");
         double avgBoatInterval = getValidDoubleInput(scanner, "Введіть середній час між прибуттям катерів (в хвилинах): ");
         int maxPassengersOnDock = getValidIntInput(scanner, "Введіть максимальну кількість пасажирів на причалі: ");
         boolean isTerminalStop = getValidBooleanInput(scanner, "Катер зупиняється на кінцевій зупинці? (1 - так, 2 - ні): ");
+        int replications = getValidIntInput(scanner, "Введіть кількість реплікацій (змодельованих днів): ");
 
-        Queue<Passenger> passengerQueue = new ArrayDeque<>();
-        List<Double> waitingTimes = new ArrayList<>();
-        Random random = new Random();
-
-        int maxPassengersAtAnyTime = 0;
-
-        for (int hour = 0; hour < DAY_HOURS; hour++) {
-            double passengerArrivalTime = 0;
-            double boatArrivalTime = 0;
+        DockParameters parameters = new DockParameters(avgPassengerInterval, avgBoatInterval, maxPassengersOnDock, isTerminalStop);
+        long seed = System.nanoTime();
+        ReplicationEngine.Summary summary = new ReplicationEngine(parameters, seed).run(replications);
 
-            while (passengerArrivalTime < 60 || boatArrivalTime < 60) {
-                passengerArrivalTime += getRandomTime(avgPassengerInterval, random);
-                if (passengerArrivalTime < 60) {
-                    passengerQueue.add(new Passenger(roundTime(passengerArrivalTime)));
-                    maxPassengersAtAnyTime = Math.max(maxPassengersAtAnyTime, passengerQueue.size());
-                }
-
-                boatArrivalTime += getRandomTime(avgBoatInterval, random);
-                if (boatArrivalTime < 60) {
-                    int availableSeats = random.nextInt(10) + 1;
-                    int boardedPassengers = 0;
-
-                    while (!passengerQueue.isEmpty() && boardedPassengers < availableSeats) {
-                        Passenger passenger = passengerQueue.poll();
-                        boardedPassengers++;
-                        double waitingTime = roundTime(Math.max(0, boatArrivalTime - passenger.getArrivalTime()));
-                        waitingTimes.add(waitingTime);
-                    }
-                }
-            }
-        }
-
-        if (!waitingTimes.isEmpty()) {
-            double totalWaitingTime = waitingTimes.stream().mapToDouble(Double::doubleValue).sum();
-            int averageWaitingTime = (int) Math.round(totalWaitingTime / waitingTimes.size());
-            System.out.println("Середній час перебування пасажирів на причалі: " + averageWaitingTime + " хвилин.");
+        Statistics waiting = summary.getWaitingTime();
+        if (waiting.getCount() > 0) {
+            System.out.println("Середній час перебування пасажирів на причалі: " + (int) Math.round(waiting.getMean())
+                    + " хвилин " + formatInterval(waiting) + ".");
         } else {
             System.out.println("Не було пасажирів для розрахунку середнього часу перебування.");
         }
-
-        double sufficientBoatInterval = findSufficientBoatInterval(avgPassengerInterval, maxPassengersOnDock, random);
-        System.out.println("Достатній інтервал між прибуттям катерів: " + (int) Math.round(sufficientBoatInterval) + " хвилин.");
+        WaitHistogram histogram = summary.getWaitingHistogram();
+        if (histogram.getCount() > 0) {
+            System.out.println("Перцентилі часу очікування (50% / 95% / 99%): "
+                    + roundTime(histogram.getValueAtPercentile(50)) + " / "
+                    + roundTime(histogram.getValueAtPercentile(95)) + " / "
+                    + roundTime(histogram.getValueAtPercentile(99)) + " хвилин.");
+        }
+        Statistics peak = summary.getPeakOccupancy();
+        System.out.println("Пікова кількість пасажирів на причалі: " + roundTime(peak.getMean()) + " " + formatInterval(peak) + ".");
+        System.out.println("Реплікацій: " + replications + ", зерно генератора: " + seed);
+
+        IntervalSearch.Result sufficient = findSufficientBoatInterval(avgPassengerInterval, maxPassengersOnDock, isTerminalStop, seed);
+        if (sufficient.found()) {
+            System.out.println("Достатній інтервал між прибуттям катерів: " + (int) Math.round(sufficient.boatInterval())
+                    + " хвилин (імовірність " + Math.round(IntervalSearch.DEFAULT_SUCCESS_RATE * 100) + "%, симуляцій: " + sufficient.simulations() + ").");
+        } else {
+            System.out.println("Достатній інтервал між прибуттям катерів не знайдено: навіть катери кожні " + sufficient.lastProbe()
+                    + " хвилини не утримують пасажирів у межах ліміту (симуляцій: " + sufficient.simulations() + ").");
+        }
 
         scanner.close();
     }
 
-    private static double getRandomTime(double avgInterval, Random random) {
-        return -Math.log(1 - random.nextDouble()) * avgInterval;
+    private static String formatInterval(Statistics statistics) {
+        double halfWidth = statistics.getConfidenceHalfWidth95();
+        return "(95% ДІ: " + roundTime(statistics.getMean() - halfWidth) + " - " + roundTime(statistics.getMean() + halfWidth) + ")";
     }
 
-    private static double roundTime(double time) {
+    static double roundTime(double time) {
         return Math.round(time * 100.0) / 100.0;
     }
 
@@ -123,51 +115,7 @@ public class DockSimulation {
         }
     }
 
-    private static double findSufficientBoatInterval(double avgPassengerInterval, int maxPassengers, Random random) {
-        double boatInterval = avgPassengerInterval;
-        while (true) {
-            Queue<Passenger> queue = new ArrayDeque<>();
-            double passengerTime = 0, boatTime = 0;
-            int maxQueueSize = 0;
-
-            for (int hour = 0; hour < DAY_HOURS; hour++) {
-                passengerTime = 0;
-                boatTime = 0;
-
-                while (passengerTime < 60 || boatTime < 60) {
-                    passengerTime += getRandomTime(avgPassengerInterval, random);
-                    if (passengerTime < 60) {
-                        queue.add(new Passenger(roundTime(passengerTime)));
-                        maxQueueSize = Math.max(maxQueueSize, queue.size());
-                    }
-
-                    boatTime += boatInterval;
-                    if (boatTime < 60) {
-                        int availableSeats = random.nextInt(10) + 1;
-                        while (!queue.isEmpty() && availableSeats-- > 0) {
-                            queue.poll();
-                        }
-                    }
-                }
-            }
-
-            if (maxQueueSize <= maxPassengers) {
-                break;
-            }
-            boatInterval -= 0.1;
-        }
-        return boatInterval;
-    }
-
-    static class Passenger {
-        private final double arrivalTime;
-
-        public Passenger(double arrivalTime) {
-            this.arrivalTime = arrivalTime;
-        }
-
-        public double getArrivalTime() {
-            return arrivalTime;
-        }
+    static IntervalSearch.Result findSufficientBoatInterval(double avgPassengerInterval, int maxPassengers, boolean terminalStop, long seed) {
+        return new IntervalSearch(avgPassengerInterval, maxPassengers, terminalStop, seed).find();
     }
 }
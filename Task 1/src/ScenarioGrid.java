@@ -0,0 +1,105 @@
+import java.util.*;
+import simulation.DockParameters;
+
+public class ScenarioGrid implements Iterator<DockParameters> {
+    private final double[] passengerIntervals;
+    private final double[] boatIntervals;
+    private final int[] capacities;
+    private final boolean[] terminalStops;
+    private final long size;
+    private long next;
+
+    private ScenarioGrid(double[] passengerIntervals, double[] boatIntervals, int[] capacities, boolean[] terminalStops) {
+        this.passengerIntervals = passengerIntervals;
+        this.boatIntervals = boatIntervals;
+        this.capacities = capacities;
+        this.terminalStops = terminalStops;
+        this.size = (long) passengerIntervals.length * boatIntervals.length * capacities.length * terminalStops.length;
+    }
+
+    public static ScenarioGrid parse(String spec) {
+        Map<String, String> axes = new HashMap<>();
+        for (String axis : spec.split(";")) {
+            if (axis.isBlank()) continue;
+            int eq = axis.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Некоректна вісь сітки: " + axis);
+            axes.put(axis.substring(0, eq).trim().toLowerCase(Locale.ROOT), axis.substring(eq + 1).trim());
+        }
+        for (String required : List.of("passenger", "boat", "capacity")) {
+            if (!axes.containsKey(required)) throw new IllegalArgumentException("У сітці відсутня вісь: " + required);
+        }
+        double[] capacities = parseValues(axes.get("capacity"));
+        int[] intCapacities = new int[capacities.length];
+        for (int i = 0; i < capacities.length; i++) {
+            intCapacities[i] = (int) Math.round(capacities[i]);
+            requirePositive(intCapacities[i], "capacity");
+        }
+        double[] passenger = parseValues(axes.get("passenger"));
+        double[] boat = parseValues(axes.get("boat"));
+        for (double value : passenger) requirePositive(value, "passenger");
+        for (double value : boat) requirePositive(value, "boat");
+        return new ScenarioGrid(passenger, boat, intCapacities, parseBooleans(axes.getOrDefault("terminal", "true")));
+    }
+
+    public long size() { return size; }
+
+    @Override
+    public boolean hasNext() {
+        return next < size;
+    }
+
+    @Override
+    public DockParameters next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        long index = next++;
+        boolean terminal = terminalStops[(int) (index % terminalStops.length)];
+        index /= terminalStops.length;
+        int capacity = capacities[(int) (index % capacities.length)];
+        index /= capacities.length;
+        double boat = boatIntervals[(int) (index % boatIntervals.length)];
+        index /= boatIntervals.length;
+        return new DockParameters(passengerIntervals[(int) index], boat, capacity, terminal);
+    }
+
+    private static double[] parseValues(String values) {
+        try {
+            String[] range = values.split(":");
+            if (range.length == 3) {
+                double from = Double.parseDouble(range[0].trim());
+                double to = Double.parseDouble(range[1].trim());
+                double step = Double.parseDouble(range[2].trim());
+                if (!(step > 0) || to < from) throw new IllegalArgumentException("Некоректний діапазон: " + values);
+                int count = (int) Math.floor((to - from) / step + 1e-9) + 1;
+                double[] result = new double[count];
+                for (int i = 0; i < count; i++) {
+                    result[i] = from + i * step;
+                }
+                return result;
+            }
+            return Arrays.stream(values.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некоректні значення осі: " + values);
+        }
+    }
+
+    private static boolean[] parseBooleans(String values) {
+        String[] tokens = values.split(",");
+        boolean[] result = new boolean[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            result[i] = parseBoolean(tokens[i]);
+        }
+        return result;
+    }
+
+    static boolean parseBoolean(String token) {
+        return switch (token.trim().toLowerCase(Locale.ROOT)) {
+            case "1", "true", "yes", "так" -> true;
+            case "2", "0", "false", "no", "ні" -> false;
+            default -> throw new IllegalArgumentException("Некоректне логічне значення: " + token);
+        };
+    }
+
+    private static void requirePositive(double value, String axis) {
+        if (!(value > 0)) throw new IllegalArgumentException("Значення осі " + axis + " має бути додатнім: " + value);
+    }
+}
@@ -0,0 +1,15 @@
+package simulation;
+
+public record DayResult(Statistics waitingTime, int maxPassengersAtAnyTime) {
+    public boolean hasPassengers() {
+        return waitingTime.getCount() > 0;
+    }
+
+    public long boardedPassengers() {
+        return waitingTime.getCount();
+    }
+
+    public double averageWaitingTime() {
+        return waitingTime.getMean();
+    }
+}
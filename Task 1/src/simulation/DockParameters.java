@@ -0,0 +1,4 @@
+package simulation;
+
+public record DockParameters(double avgPassengerInterval, double avgBoatInterval, int maxPassengersOnDock, boolean terminalStop) {
+}
@@ -0,0 +1,133 @@
+package simulation;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import metrics.Metrics;
+import metrics.Operation;
+
+public class DockSimulator {
+    public static final double DAY_MINUTES = 24 * 60;
+
+    static final int PASSENGER_ARRIVAL = 0;
+    static final int BOAT_ARRIVAL = 1;
+    static final int DOCK_CLOSED = 2;
+    static final int DOCK_OPENED = 3;
+
+    private static final int MAX_SEATS = 10;
+    private static final Operation DAY = Metrics.global().operation("simulation.day");
+
+    private final List<PassengerStream> passengerStreams = new ArrayList<>();
+    private final List<BoatLine> boatLines = new ArrayList<>();
+    private final List<Closure> closures = new ArrayList<>();
+
+    public static DayResult simulateDay(DockParameters parameters, RandomGenerator random, WaitHistogram waitingHistogram) {
+        return new DockSimulator()
+                .addPassengerStream(parameters.avgPassengerInterval())
+                .addBoatLine(parameters.avgBoatInterval(), false, parameters.terminalStop())
+                .run(DAY_MINUTES, random, waitingHistogram);
+    }
+
+    public static double getRandomTime(double avgInterval, RandomGenerator random) {
+        return -Math.log(1 - random.nextDouble()) * avgInterval;
+    }
+
+    public DockSimulator addPassengerStream(double avgInterval) {
+        requirePositive(avgInterval);
+        passengerStreams.add(new PassengerStream(avgInterval));
+        return this;
+    }
+
+    public DockSimulator addBoatLine(double interval, boolean fixedSchedule) {
+        return addBoatLine(interval, fixedSchedule, false);
+    }
+
+    public DockSimulator addBoatLine(double interval, boolean fixedSchedule, boolean terminalStop) {
+        requirePositive(interval);
+        boatLines.add(new BoatLine(interval, fixedSchedule, MAX_SEATS, terminalStop));
+        return this;
+    }
+
+    public DockSimulator addClosure(double from, double to) {
+        if (to <= from) throw new IllegalArgumentException("Closure must end after it starts");
+        closures.add(new Closure(from, to));
+        return this;
+    }
+
+    public DayResult run(double horizon, RandomGenerator random) {
+        return run(horizon, random, null);
+    }
+
+    public DayResult run(double horizon, RandomGenerator random, WaitHistogram waitingHistogram) {
+        long started = System.nanoTime();
+        EventQueue events = new EventQueue(passengerStreams.size() + boatLines.size() + 2 * closures.size());
+        for (int i = 0; i < passengerStreams.size(); i++) {
+            events.schedule(passengerStreams.get(i).nextInterval(random), PASSENGER_ARRIVAL, i);
+        }
+        for (int i = 0; i < boatLines.size(); i++) {
+            events.schedule(boatLines.get(i).nextInterval(random), BOAT_ARRIVAL, i);
+        }
+        for (Closure closure : closures) {
+            events.schedule(closure.from(), DOCK_CLOSED, 0);
+            events.schedule(closure.to(), DOCK_OPENED, 0);
+        }
+
+        PassengerQueue passengerQueue = new PassengerQueue();
+        Statistics waitingTime = new Statistics();
+        int maxPassengersAtAnyTime = 0;
+        int activeClosures = 0;
+
+        while (events.poll()) {
+            double now = events.getTime();
+            if (now >= horizon) break;
+            int source = events.getPayload();
+
+            switch (events.getType()) {
+                case PASSENGER_ARRIVAL -> {
+                    passengerQueue.add(now);
+                    maxPassengersAtAnyTime = Math.max(maxPassengersAtAnyTime, passengerQueue.size());
+                    events.schedule(now + passengerStreams.get(source).nextInterval(random), PASSENGER_ARRIVAL, source);
+                }
+                case BOAT_ARRIVAL -> {
+                    BoatLine line = boatLines.get(source);
+                    if (activeClosures == 0) {
+                        int availableSeats = line.availableSeats(random);
+                        while (!passengerQueue.isEmpty() && availableSeats-- > 0) {
+                            double waited = now - passengerQueue.poll();
+                            waitingTime.accept(waited);
+                            if (waitingHistogram != null) waitingHistogram.record(waited);
+                        }
+                    }
+                    events.schedule(now + line.nextInterval(random), BOAT_ARRIVAL, source);
+                }
+                case DOCK_CLOSED -> activeClosures++;
+                case DOCK_OPENED -> activeClosures--;
+                default -> throw new IllegalStateException("Unknown event type: " + events.getType());
+            }
+        }
+        DAY.recordSince(started);
+        return new DayResult(waitingTime, maxPassengersAtAnyTime);
+    }
+
+    private static void requirePositive(double interval) {
+        if (!(interval > 0)) throw new IllegalArgumentException("Interval must be positive: " + interval);
+    }
+
+    record PassengerStream(double avgInterval) {
+        double nextInterval(RandomGenerator random) {
+            return DockSimulator.getRandomTime(avgInterval, random);
+        }
+    }
+
+    record BoatLine(double interval, boolean fixedSchedule, int maxSeats, boolean terminalStop) {
+        double nextInterval(RandomGenerator random) {
+            return fixedSchedule ? interval : DockSimulator.getRandomTime(interval, random);
+        }
+
+        int availableSeats(RandomGenerator random) {
+            return terminalStop ? maxSeats : random.nextInt(maxSeats) + 1;
+        }
+    }
+
+    record Closure(double from, double to) {
+    }
+}
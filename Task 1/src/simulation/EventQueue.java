@@ -0,0 +1,98 @@
+package simulation;
+
+import java.util.Arrays;
+
+public class EventQueue {
+    private double[] times;
+    private long[] sequences;
+    private int[] types;
+    private int[] payloads;
+    private int size;
+    private long nextSequence;
+
+    private double time;
+    private int type;
+    private int payload;
+
+    public EventQueue(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 4);
+        times = new double[capacity];
+        sequences = new long[capacity];
+        types = new int[capacity];
+        payloads = new int[capacity];
+    }
+
+    public void schedule(double time, int type, int payload) {
+        if (size == times.length) grow();
+        int slot = size++;
+        long sequence = nextSequence++;
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(time, sequence, times[parent], sequences[parent])) break;
+            move(parent, slot);
+            slot = parent;
+        }
+        set(slot, time, sequence, type, payload);
+    }
+
+    public boolean poll() {
+        if (size == 0) return false;
+        time = times[0];
+        type = types[0];
+        payload = payloads[0];
+
+        int last = --size;
+        if (last > 0) siftDown(times[last], sequences[last], types[last], payloads[last]);
+        return true;
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+    public double peekTime() { return size > 0 ? times[0] : Double.POSITIVE_INFINITY; }
+
+    public double getTime() { return time; }
+    public int getType() { return type; }
+    public int getPayload() { return payload; }
+
+    public void clear() {
+        size = 0;
+        nextSequence = 0;
+    }
+
+    private void siftDown(double time, long sequence, int type, int payload) {
+        int slot = 0;
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && before(times[right], sequences[right], times[child], sequences[child])) child = right;
+            if (!before(times[child], sequences[child], time, sequence)) break;
+            move(child, slot);
+            slot = child;
+        }
+        set(slot, time, sequence, type, payload);
+    }
+
+    private static boolean before(double time, long sequence, double otherTime, long otherSequence) {
+        return time < otherTime || (time == otherTime && sequence < otherSequence);
+    }
+
+    private void move(int from, int to) {
+        set(to, times[from], sequences[from], types[from], payloads[from]);
+    }
+
+    private void set(int slot, double time, long sequence, int type, int payload) {
+        times[slot] = time;
+        sequences[slot] = sequence;
+        types[slot] = type;
+        payloads[slot] = payload;
+    }
+
+    private void grow() {
+        int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        types = Arrays.copyOf(types, capacity);
+        payloads = Arrays.copyOf(payloads, capacity);
+    }
+}
@@ -0,0 +1,144 @@
+package simulation;
+
+import java.util.stream.IntStream;
+import metrics.Metrics;
+import metrics.Operation;
+
+public class IntervalSearch {
+    public static final double DEFAULT_SUCCESS_RATE = 0.95;
+    public static final double DEFAULT_CONFIDENCE = 0.95;
+    public static final int DEFAULT_BATCH_SIZE = 400;
+    public static final double DEFAULT_TOLERANCE = 0.05;
+
+    private static final int MAX_BATCHES_PER_PROBE = 8;
+    private static final double MIN_INTERVAL = 0.01;
+    private static final Operation SEARCH = Metrics.global().operation("simulation.interval-search");
+
+    private final double avgPassengerInterval;
+    private final int maxPassengers;
+    private final boolean terminalStop;
+    private final double successRate;
+    private final double z;
+    private final int batchSize;
+    private final double tolerance;
+    private final long seed;
+    private long simulations;
+    private double lastProbe;
+
+    public IntervalSearch(double avgPassengerInterval, int maxPassengers, boolean terminalStop, long seed) {
+        this(avgPassengerInterval, maxPassengers, terminalStop, DEFAULT_SUCCESS_RATE, DEFAULT_CONFIDENCE, DEFAULT_BATCH_SIZE, DEFAULT_TOLERANCE, seed);
+    }
+
+    public IntervalSearch(double avgPassengerInterval, int maxPassengers, boolean terminalStop,
+                          double successRate, double confidence, int batchSize, double tolerance, long seed) {
+        if (!(successRate > 0 && successRate < 1)) throw new IllegalArgumentException("Success rate must be in (0, 1): " + successRate);
+        if (!(confidence > 0 && confidence < 1)) throw new IllegalArgumentException("Confidence must be in (0, 1): " + confidence);
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        if (!(tolerance > 0)) throw new IllegalArgumentException("Tolerance must be positive: " + tolerance);
+        this.avgPassengerInterval = avgPassengerInterval;
+        this.maxPassengers = maxPassengers;
+        this.terminalStop = terminalStop;
+        this.successRate = successRate;
+        this.z = normalQuantile(1 - (1 - confidence) / 2);
+        this.batchSize = batchSize;
+        this.tolerance = tolerance;
+        this.seed = seed;
+    }
+
+    public Result find() {
+        long started = System.nanoTime();
+        Result result = search();
+        SEARCH.recordSince(started);
+        return result;
+    }
+
+    private Result search() {
+        simulations = 0;
+        double feasible;
+        double infeasible;
+
+        double probe = avgPassengerInterval;
+        if (isFeasible(probe)) {
+            feasible = probe;
+            infeasible = probe * 2;
+            while (isFeasible(infeasible)) {
+                feasible = infeasible;
+                if (feasible >= DockSimulator.DAY_MINUTES) return new Result(feasible, lastProbe, simulations);
+                infeasible *= 2;
+            }
+        } else {
+            infeasible = probe;
+            feasible = probe / 2;
+            while (!isFeasible(feasible)) {
+                infeasible = feasible;
+                if (feasible <= MIN_INTERVAL) return new Result(Double.NaN, lastProbe, simulations);
+                feasible /= 2;
+            }
+        }
+
+        while (infeasible - feasible > tolerance) {
+            double middle = (feasible + infeasible) / 2;
+            if (isFeasible(middle)) {
+                feasible = middle;
+            } else {
+                infeasible = middle;
+            }
+        }
+        return new Result(feasible, lastProbe, simulations);
+    }
+
+    private boolean isFeasible(double boatInterval) {
+        lastProbe = boatInterval;
+        long successes = 0;
+        long trials = 0;
+        for (int batch = 0; batch < MAX_BATCHES_PER_PROBE; batch++) {
+            successes += runBatch(boatInterval, (int) trials);
+            trials += batchSize;
+
+            double p = (double) successes / trials;
+            double zz = z * z;
+            double centre = (p + zz / (2 * trials)) / (1 + zz / trials);
+            double margin = z * Math.sqrt(p * (1 - p) / trials + zz / (4.0 * trials * trials)) / (1 + zz / trials);
+            if (centre - margin >= successRate) return true;
+            if (centre + margin < successRate) return false;
+        }
+        return (double) successes / trials >= successRate;
+    }
+
+    static double normalQuantile(double p) {
+        if (p <= 0.02425) return tailQuantile(p);
+        if (p >= 1 - 0.02425) return -tailQuantile(1 - p);
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((-3.969683028665376e+01 * r + 2.209460984245205e+02) * r - 2.759285104469687e+02) * r
+                + 1.383577518672690e+02) * r - 3.066479806614716e+01) * r + 2.506628277459239e+00) * q
+                / (((((-5.447609879822406e+01 * r + 1.615858368580409e+02) * r - 1.556989798598866e+02) * r
+                + 6.680131188771972e+01) * r - 1.328068155288572e+01) * r + 1);
+    }
+
+    private static double tailQuantile(double p) {
+        double q = Math.sqrt(-2 * Math.log(p));
+        return (((((-7.784894002430293e-03 * q - 3.223964580411365e-01) * q - 2.400758277161838e+00) * q
+                - 2.549732539343734e+00) * q + 4.374664141464968e+00) * q + 2.938163982698783e+00)
+                / ((((7.784695709041462e-03 * q + 3.224671290700398e-01) * q + 2.445134137142996e+00) * q
+                + 3.754408661907416e+00) * q + 1);
+    }
+
+    private long runBatch(double boatInterval, int firstReplication) {
+        simulations += batchSize;
+        return IntStream.range(firstReplication, firstReplication + batchSize)
+                .parallel()
+                .filter(i -> new DockSimulator()
+                        .addPassengerStream(avgPassengerInterval)
+                        .addBoatLine(boatInterval, true, terminalStop)
+                        .run(DockSimulator.DAY_MINUTES, ReplicationEngine.randomFor(seed, i))
+                        .maxPassengersAtAnyTime() <= maxPassengers)
+                .count();
+    }
+
+    public record Result(double boatInterval, double lastProbe, long simulations) {
+        public boolean found() {
+            return !Double.isNaN(boatInterval);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package simulation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class PassengerQueue {
+    private double[] arrivalTimes;
+    private int head;
+    private int size;
+
+    public PassengerQueue() {
+        this(64);
+    }
+
+    public PassengerQueue(int initialCapacity) {
+        arrivalTimes = new double[Integer.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1];
+    }
+
+    public void add(double arrivalTime) {
+        if (size == arrivalTimes.length) grow();
+        arrivalTimes[(head + size) & (arrivalTimes.length - 1)] = arrivalTime;
+        size++;
+    }
+
+    public double poll() {
+        if (size == 0) throw new NoSuchElementException("Passenger queue is empty");
+        double arrivalTime = arrivalTimes[head];
+        head = (head + 1) & (arrivalTimes.length - 1);
+        size--;
+        return arrivalTime;
+    }
+
+    public double peek() {
+        if (size == 0) throw new NoSuchElementException("Passenger queue is empty");
+        return arrivalTimes[head];
+    }
+
+    public boolean isEmpty() { return size == 0; }
+    public int size() { return size; }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        double[] grown = Arrays.copyOf(arrivalTimes, arrivalTimes.length * 2);
+        System.arraycopy(arrivalTimes, 0, grown, arrivalTimes.length, head);
+        arrivalTimes = grown;
+    }
+}
@@ -0,0 +1,71 @@
+package simulation;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import metrics.Metrics;
+import metrics.Operation;
+
+public class ReplicationEngine {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final Operation REPLICATIONS = Metrics.global().operation("simulation.replications");
+
+    private final DockParameters parameters;
+    private final long seed;
+
+    public ReplicationEngine(DockParameters parameters, long seed) {
+        this.parameters = parameters;
+        this.seed = seed;
+    }
+
+    public Summary run(int replications) {
+        return run(replications, true);
+    }
+
+    public Summary run(int replications, boolean parallel) {
+        long started = System.nanoTime();
+        IntStream indices = IntStream.range(0, replications);
+        Summary result = (parallel ? indices.parallel() : indices)
+                .collect(Summary::new,
+                        (summary, i) -> summary.accept(DockSimulator.simulateDay(parameters, randomFor(i), summary.getWaitingHistogram())),
+                        Summary::combine);
+        REPLICATIONS.recordSince(started);
+        return result;
+    }
+
+    SplittableRandom randomFor(int replication) {
+        return randomFor(seed, replication);
+    }
+
+    public static SplittableRandom randomFor(long seed, int replication) {
+        return new SplittableRandom(mix64(seed + (replication + 1L) * GOLDEN_GAMMA));
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static class Summary {
+        private final Statistics waitingTime = new Statistics();
+        private final Statistics peakOccupancy = new Statistics();
+        private final WaitHistogram waitingHistogram = new WaitHistogram();
+
+        void accept(DayResult day) {
+            if (day.hasPassengers()) {
+                waitingTime.accept(day.averageWaitingTime());
+            }
+            peakOccupancy.accept(day.maxPassengersAtAnyTime());
+        }
+
+        void combine(Summary other) {
+            waitingTime.combine(other.waitingTime);
+            peakOccupancy.combine(other.peakOccupancy);
+            waitingHistogram.merge(other.waitingHistogram);
+        }
+
+        public Statistics getWaitingTime() { return waitingTime; }
+        public Statistics getPeakOccupancy() { return peakOccupancy; }
+        public WaitHistogram getWaitingHistogram() { return waitingHistogram; }
+    }
+}
@@ -0,0 +1,233 @@
+package simulation;
+
+import java.util.*;
+import java.util.random.RandomGenerator;
+import metrics.Metrics;
+import metrics.Operation;
+
+public class RouteSimulator {
+    static final int PASSENGER_ARRIVAL = 0;
+    static final int BOAT_DISPATCH = 1;
+    static final int BOAT_ARRIVAL = 2;
+    static final int BOAT_RETURN = 3;
+
+    private static final Operation DAY = Metrics.global().operation("simulation.route-day");
+
+    private final List<Dock> docks = new ArrayList<>();
+    private final int fleetSize;
+    private final int capacity;
+    private double headway = 10;
+    private boolean fixedHeadway = true;
+    private double turnaround;
+
+    public RouteSimulator(int fleetSize, int capacity) {
+        if (fleetSize <= 0) throw new IllegalArgumentException("Fleet size must be positive: " + fleetSize);
+        if (capacity <= 0) throw new IllegalArgumentException("Boat capacity must be positive: " + capacity);
+        this.fleetSize = fleetSize;
+        this.capacity = capacity;
+    }
+
+    public RouteSimulator addDock(double avgPassengerInterval, double travelTimeFromPrevious) {
+        if (!(avgPassengerInterval > 0)) throw new IllegalArgumentException("Interval must be positive: " + avgPassengerInterval);
+        if (!(travelTimeFromPrevious >= 0)) throw new IllegalArgumentException("Travel time must not be negative: " + travelTimeFromPrevious);
+        docks.add(new Dock(avgPassengerInterval, docks.isEmpty() ? 0 : travelTimeFromPrevious));
+        return this;
+    }
+
+    public RouteSimulator dispatchEvery(double headway, boolean fixedSchedule) {
+        if (!(headway > 0)) throw new IllegalArgumentException("Headway must be positive: " + headway);
+        this.headway = headway;
+        this.fixedHeadway = fixedSchedule;
+        return this;
+    }
+
+    public RouteSimulator turnaround(double turnaround) {
+        if (!(turnaround >= 0)) throw new IllegalArgumentException("Turnaround must not be negative: " + turnaround);
+        this.turnaround = turnaround;
+        return this;
+    }
+
+    public int getDockCount() { return docks.size(); }
+
+    public RouteResult run(double horizon, RandomGenerator random) {
+        int dockCount = docks.size();
+        if (dockCount < 2) throw new IllegalStateException("A route needs at least two docks");
+        long started = System.nanoTime();
+        int terminal = dockCount - 1;
+        double returnTrip = turnaround;
+        for (int d = 1; d < dockCount; d++) {
+            returnTrip += docks.get(d).travelTime();
+        }
+
+        PassengerQueue[] queues = new PassengerQueue[dockCount];
+        Statistics[] waitingTime = new Statistics[dockCount];
+        Statistics[] departingLoad = new Statistics[dockCount];
+        int[] peakOccupancy = new int[dockCount];
+        for (int d = 0; d < dockCount; d++) {
+            queues[d] = new PassengerQueue();
+            waitingTime[d] = new Statistics();
+            departingLoad[d] = new Statistics();
+        }
+
+        int[] boatDock = new int[fleetSize];
+        int[] boatOccupancy = new int[fleetSize];
+        int[] ridersTo = new int[fleetSize * dockCount];
+        int[] idleBoats = new int[fleetSize];
+        int idleCount = fleetSize;
+        for (int b = 0; b < fleetSize; b++) {
+            idleBoats[b] = fleetSize - 1 - b;
+        }
+        int missedDispatches = 0;
+
+        EventQueue events = new EventQueue(dockCount + fleetSize + 1);
+        for (int d = 0; d < terminal; d++) {
+            events.schedule(nextPassengerInterval(d, random), PASSENGER_ARRIVAL, d);
+        }
+        events.schedule(0, BOAT_DISPATCH, 0);
+
+        while (events.poll()) {
+            double now = events.getTime();
+            if (now >= horizon) break;
+            int payload = events.getPayload();
+
+            switch (events.getType()) {
+                case PASSENGER_ARRIVAL -> {
+                    PassengerQueue queue = queues[payload];
+                    queue.add(now);
+                    peakOccupancy[payload] = Math.max(peakOccupancy[payload], queue.size());
+                    events.schedule(now + nextPassengerInterval(payload, random), PASSENGER_ARRIVAL, payload);
+                }
+                case BOAT_DISPATCH -> {
+                    if (idleCount > 0) {
+                        int boat = idleBoats[--idleCount];
+                        boatDock[boat] = 0;
+                        events.schedule(now, BOAT_ARRIVAL, boat);
+                    } else {
+                        missedDispatches++;
+                    }
+                    double next = fixedHeadway ? headway : DockSimulator.getRandomTime(headway, random);
+                    events.schedule(now + next, BOAT_DISPATCH, 0);
+                }
+                case BOAT_ARRIVAL -> {
+                    int boat = payload;
+                    int dock = boatDock[boat];
+                    int slot = boat * dockCount + dock;
+                    boatOccupancy[boat] -= ridersTo[slot];
+                    ridersTo[slot] = 0;
+
+                    if (dock == terminal) {
+                        events.schedule(now + returnTrip, BOAT_RETURN, boat);
+                        break;
+                    }
+
+                    PassengerQueue queue = queues[dock];
+                    int remainingStops = terminal - dock;
+                    while (!queue.isEmpty() && boatOccupancy[boat] < capacity) {
+                        waitingTime[dock].accept(now - queue.poll());
+                        int destination = dock + 1 + random.nextInt(remainingStops);
+                        ridersTo[boat * dockCount + destination]++;
+                        boatOccupancy[boat]++;
+                    }
+                    departingLoad[dock].accept(boatOccupancy[boat]);
+                    boatDock[boat] = dock + 1;
+                    events.schedule(now + docks.get(dock + 1).travelTime(), BOAT_ARRIVAL, boat);
+                }
+                case BOAT_RETURN -> idleBoats[idleCount++] = payload;
+                default -> throw new IllegalStateException("Unknown event type: " + events.getType());
+            }
+        }
+        DAY.recordSince(started);
+        return new RouteResult(waitingTime, peakOccupancy, departingLoad, missedDispatches);
+    }
+
+    public static RouteSimulator parse(String spec) {
+        Map<String, String> values = new HashMap<>();
+        for (String pair : spec.split(";")) {
+            if (pair.isBlank()) continue;
+            int eq = pair.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("Некоректний параметр маршруту: " + pair);
+            values.put(pair.substring(0, eq).trim().toLowerCase(Locale.ROOT), pair.substring(eq + 1).trim());
+        }
+        try {
+            RouteSimulator route = new RouteSimulator(
+                    Integer.parseInt(values.getOrDefault("fleet", "4")),
+                    Integer.parseInt(values.getOrDefault("capacity", "10")));
+            int dockCount = Integer.parseInt(values.getOrDefault("docks", "2"));
+            double[] passenger = perDock(values.getOrDefault("passenger", "3"), dockCount);
+            double[] travel = perDock(values.getOrDefault("travel", "5"), dockCount);
+            for (int d = 0; d < dockCount; d++) {
+                route.addDock(passenger[d], travel[d]);
+            }
+            return route
+                    .dispatchEvery(Double.parseDouble(values.getOrDefault("headway", "10")),
+                            !values.getOrDefault("schedule", "fixed").equalsIgnoreCase("random"))
+                    .turnaround(Double.parseDouble(values.getOrDefault("turnaround", "0")));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некоректне число у специфікації маршруту: " + e.getMessage());
+        }
+    }
+
+    private static double[] perDock(String values, int dockCount) {
+        String[] tokens = values.split(",");
+        if (tokens.length != 1 && tokens.length != dockCount) {
+            throw new IllegalArgumentException("Очікується 1 або " + dockCount + " значень: " + values);
+        }
+        double[] result = new double[dockCount];
+        for (int d = 0; d < dockCount; d++) {
+            result[d] = Double.parseDouble(tokens[tokens.length == 1 ? 0 : d].trim());
+        }
+        return result;
+    }
+
+    private double nextPassengerInterval(int dock, RandomGenerator random) {
+        return DockSimulator.getRandomTime(docks.get(dock).avgPassengerInterval(), random);
+    }
+
+    record Dock(double avgPassengerInterval, double travelTime) {
+    }
+
+    public record RouteResult(Statistics[] waitingTime, int[] peakOccupancy, Statistics[] departingLoad, int missedDispatches) {
+    }
+
+    public static class Summary {
+        private final Statistics[] waitingTime;
+        private final Statistics[] peakOccupancy;
+        private final Statistics[] departingLoad;
+        private final Statistics missedDispatches = new Statistics();
+
+        public Summary(int dockCount) {
+            waitingTime = new Statistics[dockCount];
+            peakOccupancy = new Statistics[dockCount];
+            departingLoad = new Statistics[dockCount];
+            for (int d = 0; d < dockCount; d++) {
+                waitingTime[d] = new Statistics();
+                peakOccupancy[d] = new Statistics();
+                departingLoad[d] = new Statistics();
+            }
+        }
+
+        public void accept(RouteResult result) {
+            for (int d = 0; d < waitingTime.length; d++) {
+                waitingTime[d].combine(result.waitingTime()[d]);
+                peakOccupancy[d].accept(result.peakOccupancy()[d]);
+                departingLoad[d].combine(result.departingLoad()[d]);
+            }
+            missedDispatches.accept(result.missedDispatches());
+        }
+
+        public void combine(Summary other) {
+            for (int d = 0; d < waitingTime.length; d++) {
+                waitingTime[d].combine(other.waitingTime[d]);
+                peakOccupancy[d].combine(other.peakOccupancy[d]);
+                departingLoad[d].combine(other.departingLoad[d]);
+            }
+            missedDispatches.combine(other.missedDispatches);
+        }
+
+        public int getDockCount() { return waitingTime.length; }
+        public Statistics getWaitingTime(int dock) { return waitingTime[dock]; }
+        public Statistics getPeakOccupancy(int dock) { return peakOccupancy[dock]; }
+        public Statistics getDepartingLoad(int dock) { return departingLoad[dock]; }
+        public Statistics getMissedDispatches() { return missedDispatches; }
+    }
+}
@@ -0,0 +1,52 @@
+package simulation;
+
+public class WaitHistogram {
+    private static final double UNITS_PER_MINUTE = 100;
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT >>> 1;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final long MAX_UNITS = (1L << MAX_MAGNITUDE) - 1;
+
+    private final long[] counts = new long[indexOf(MAX_UNITS) + 1];
+    private long count;
+
+    public void record(double minutes) {
+        long units = Math.min(MAX_UNITS, Math.max(0, Math.round(minutes * UNITS_PER_MINUTE)));
+        counts[indexOf(units)]++;
+        count++;
+    }
+
+    public void merge(WaitHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+    }
+
+    public long getCount() { return count; }
+
+    public double getValueAtPercentile(double percentile) {
+        if (count == 0) return Double.NaN;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return midpointOf(i) / UNITS_PER_MINUTE;
+        }
+        return midpointOf(counts.length - 1) / UNITS_PER_MINUTE;
+    }
+
+    private static int indexOf(long units) {
+        if (units < SUB_BUCKET_COUNT) return (int) units;
+        int shift = 64 - Long.numberOfLeadingZeros(units) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF + (int) (units >>> shift);
+    }
+
+    private static double midpointOf(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long low = (long) (index - shift * SUB_BUCKET_HALF) << shift;
+        return low + ((1L << shift) - 1) / 2.0;
+    }
+}
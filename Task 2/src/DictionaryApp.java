@@ -1,11 +1,42 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import dictionary.DictionaryService;
+import dictionary.WordListExporter;
+import dictionary.WordListImporter;
+import metrics.Metrics;
+import metrics.Operation;
 
 public class DictionaryApp {
-    private static final Map<String, Set<String>> dictionary = new HashMap<>();
-    private static final Map<String, Integer> wordUsage = new TreeMap<>();
+    private static final String DEFAULT_STORAGE = "dictionary-data";
+    private static final int SEARCH_LIMIT = 10;
+    private static final int SHORT_WORD = 4;
     private static final Scanner scanner = new Scanner(System.in);
+    private static final Metrics metrics = Metrics.global();
+    private static final Operation ADD_WORD = metrics.operation("dictionary.add-word");
+    private static final Operation ADD_TRANSLATION = metrics.operation("dictionary.add-translation");
+    private static final Operation REMOVE_WORD = metrics.operation("dictionary.remove-word");
+    private static final Operation REMOVE_TRANSLATION = metrics.operation("dictionary.remove-translation");
+    private static final Operation LOOKUP = metrics.operation("dictionary.lookup");
+    private static final Operation TOP_WORDS = metrics.operation("dictionary.top-words");
+    private static final Operation TRENDING = metrics.operation("dictionary.trending");
+    private static final Operation PREFIX = metrics.operation("dictionary.prefix");
+    private static final Operation SIMILAR = metrics.operation("dictionary.similar");
+    private static final Operation REVERSE = metrics.operation("dictionary.reverse");
+    private static final Operation IMPORT = metrics.operation("dictionary.import");
+    private static final Operation EXPORT = metrics.operation("dictionary.export");
+    private static DictionaryService dictionary;
 
     public static void main(String[] args) {
+        Path storage = Path.of(args.length > 0 ? args[0] : DEFAULT_STORAGE);
+        try {
+            dictionary = DictionaryService.open(storage);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not open dictionary storage " + storage + ": " + e.getMessage());
+            System.out.println("Working in memory, changes will not be saved.");
+            dictionary = new DictionaryService();
+        }
+
         while (true) {
             System.out.println("\nMenu:");
             System.out.println("1. Add a word");
@@ -15,6 +46,13 @@ public class DictionaryApp {
             System.out.println("5. Show translations of a word");
             System.out.println("6. Top-10 most popular words");
             System.out.println("7. Top-10 least popular words");
+            System.out.println("8. Find words by prefix");
+            System.out.println("9. Find similar words");
+            System.out.println("10. Find English words by German translation");
+            System.out.println("11. Import a word list");
+            System.out.println("12. Export the dictionary");
+            System.out.println("13. Trending words");
+            System.out.println("14. Print operation metrics");
             System.out.println("0. Exit");
             System.out.print("Choose an option: ");
             
@@ -35,8 +73,16 @@ public class DictionaryApp {
                 case 5 -> showTranslations();
                 case 6 -> showTopWords(true);
                 case 7 -> showTopWords(false);
+                case 8 -> showPrefixMatches();
+                case 9 -> showSimilarWords();
+                case 10 -> showReverseTranslations();
+                case 11 -> importWordList();
+                case 12 -> exportWordList();
+                case 13 -> showTrendingWords();
+                case 14 -> showMetrics();
                 case 0 -> {
                     System.out.println("Exiting...");
+                    close();
                     return;
                 }
                 default -> System.out.println("Invalid choice. Please try again.");
@@ -44,36 +90,49 @@ public class DictionaryApp {
         }
     }
 
+    private static void close() {
+        try {
+            dictionary.close();
+        } catch (IOException e) {
+            System.out.println("Could not save the dictionary: " + e.getMessage());
+        }
+    }
+
     private static void addWord() {
         System.out.print("Enter an English word: ");
         String word = scanner.nextLine().trim();
-        if (dictionary.containsKey(word)) {
-            System.out.println("The word already exists in the dictionary!");
-        } else {
-            dictionary.put(word, new HashSet<>());
-            wordUsage.put(word, 0);
+        long started = System.nanoTime();
+        boolean added = dictionary.addWord(word);
+        ADD_WORD.recordSince(started);
+        if (added) {
             System.out.println("Word added!");
+        } else {
+            System.out.println("The word already exists in the dictionary!");
         }
     }
 
     private static void addTranslation() {
         System.out.print("Enter an English word: ");
         String word = scanner.nextLine().trim();
-        if (!dictionary.containsKey(word)) {
+        if (!dictionary.containsWord(word)) {
             System.out.println("The word is not in the dictionary.");
             return;
         }
         System.out.print("Enter the German translation: ");
         String translation = scanner.nextLine().trim();
-        dictionary.get(word).add(translation);
+        long started = System.nanoTime();
+        dictionary.addTranslation(word, translation);
+        ADD_TRANSLATION.recordSince(started);
         System.out.println("Translation added!");
     }
 
     private static void removeWord() {
         System.out.print("Enter the word to remove: ");
         String word = scanner.nextLine().trim();
-        if (dictionary.remove(word) != null) {
-            wordUsage.remove(word);
+        long started = System.nanoTime();
+        boolean removed = dictionary.removeWord(word);
+        REMOVE_WORD.recordSince(started);
+        if (removed) {
             System.out.println("Word removed!");
         } else {
             System.out.println("Word not found.");
@@ -83,13 +142,16 @@ public class DictionaryApp {
     private static void removeTranslation() {
         System.out.print("Enter an English word: ");
         String word = scanner.nextLine().trim();
-        if (!dictionary.containsKey(word)) {
+        if (!dictionary.containsWord(word)) {
             System.out.println("The word is not in the dictionary.");
             return;
         }
         System.out.print("Enter the translation to remove: ");
         String translation = scanner.nextLine().trim();
-        if (dictionary.get(word).remove(translation)) {
+        long started = System.nanoTime();
+        boolean removed = dictionary.removeTranslation(word, translation);
+        REMOVE_TRANSLATION.recordSince(started);
+        if (removed) {
             System.out.println("Translation removed!");
         } else {
             System.out.println("Translation not found.");
@@ -99,22 +161,114 @@ public class DictionaryApp {
     private static void showTranslations() {
         System.out.print("Enter an English word: ");
         String word = scanner.nextLine().trim();
-        if (!dictionary.containsKey(word)) {
+        long started = System.nanoTime();
+        Set<String> translations = dictionary.lookup(word);
+        LOOKUP.recordSince(started);
+        if (translations == null) {
             System.out.println("The word is not in the dictionary.");
             return;
         }
-        wordUsage.put(word, wordUsage.getOrDefault(word, 0) + 1);
-        System.out.println("[" + word + "] - " + dictionary.get(word));
+        System.out.println("[" + word + "] - " + translations);
     }
 
     private static void showTopWords(boolean popular) {
-        if (wordUsage.isEmpty()) {
+        if (dictionary.isEmpty()) {
             System.out.println("Not enough data");
             return;
         }
-        dictionary.keySet().stream()
-                .sorted((w1, w2) -> popular ? wordUsage.get(w2) - wordUsage.get(w1) : wordUsage.get(w1) - wordUsage.get(w2))
-                .limit(10)
-                .forEach(word -> System.out.println("[" + word + "] - " + wordUsage.get(word) + " lookups"));
+        long started = System.nanoTime();
+        List<String> words = dictionary.topWords(popular, 10);
+        TOP_WORDS.recordSince(started);
+        words.forEach(word -> System.out.println("[" + word + "] - " + dictionary.getUsage(word) + " lookups"));
+    }
+
+    private static void showTrendingWords() {
+        long minutes = dictionary.trendingWindowNanos() / 60_000_000_000L;
+        long started = System.nanoTime();
+        List<String> words = dictionary.trendingWords(10);
+        TRENDING.recordSince(started);
+        if (words.isEmpty()) {
+            System.out.println("No lookups in the last " + minutes + " minutes");
+            return;
+        }
+        words.forEach(word -> System.out.println("[" + word + "] - about " + dictionary.getRecentUsage(word)
+                + " lookups in the last " + minutes + " minutes"));
+    }
+
+    private static void showPrefixMatches() {
+        System.out.print("Enter the beginning of an English word: ");
+        String prefix = scanner.nextLine().trim();
+        long started = System.nanoTime();
+        List<String> words = dictionary.wordsWithPrefix(prefix, SEARCH_LIMIT);
+        PREFIX.recordSince(started);
+        printWords(words);
+    }
+
+    private static void showSimilarWords() {
+        System.out.print("Enter an English word: ");
+        String word = scanner.nextLine().trim();
+        long started = System.nanoTime();
+        List<String> words = dictionary.similarWords(word, word.length() <= SHORT_WORD ? 1 : 2, SEARCH_LIMIT);
+        SIMILAR.recordSince(started);
+        printWords(words);
+    }
+
+    private static void showReverseTranslations() {
+        System.out.print("Enter a German translation: ");
+        String translation = scanner.nextLine().trim();
+        long started = System.nanoTime();
+        Set<String> words = dictionary.wordsForTranslation(translation);
+        REVERSE.recordSince(started);
+        if (words.isEmpty()) {
+            System.out.println("No English words have this translation.");
+            return;
+        }
+        System.out.println("[" + translation + "] - " + words);
+    }
+
+    private static void importWordList() {
+        System.out.print("Enter the path of a .tsv or .csv word list: ");
+        Path file = Path.of(scanner.nextLine().trim());
+        try {
+            long started = System.nanoTime();
+            WordListImporter.Report report = new WordListImporter(dictionary, Runtime.getRuntime().availableProcessors()).importFile(file);
+            IMPORT.recordSince(started);
+            System.out.printf("Imported %d lines (%d rejected) in %.2f s, %.0f lines/sec%n",
+                    report.lines(), report.rejected(), report.nanos() / 1e9, report.linesPerSecond());
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not import " + file + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void exportWordList() {
+        System.out.print("Enter the path of the .tsv or .csv file to write: ");
+        Path file = Path.of(scanner.nextLine().trim());
+        try {
+            long started = System.nanoTime();
+            long lines = new WordListExporter(dictionary).exportFile(file);
+            EXPORT.recordSince(started);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("Exported %d lines in %.2f s, %.0f lines/sec%n", lines, seconds, seconds == 0 ? 0 : lines / seconds);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not export to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void showMetrics() {
+        try {
+            metrics.writeText(System.out);
+        } catch (IOException e) {
+            System.out.println("Could not print metrics: " + e.getMessage());
+        }
+    }
+
+    private static void printWords(List<String> words) {
+        if (words.isEmpty()) {
+            System.out.println("No matching words found.");
+            return;
+        }
+        words.forEach(word -> System.out.println("[" + word + "] - " + dictionary.getTranslations(word)));
     }
 }
\ No newline at end of file
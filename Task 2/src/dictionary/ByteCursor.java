@@ -0,0 +1,76 @@
+package dictionary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class ByteCursor {
+    private final ByteBuffer buffer;
+    private int position;
+
+    ByteCursor(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    int position() { return position; }
+    void position(int position) { this.position = position; }
+    boolean hasRemaining() { return position < buffer.limit(); }
+
+    byte readByte() {
+        return buffer.get(position++);
+    }
+
+    int readInt() {
+        int value = buffer.getInt(position);
+        position += Integer.BYTES;
+        return value;
+    }
+
+    long readLong() {
+        long value = buffer.getLong(position);
+        position += Long.BYTES;
+        return value;
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) throw new IllegalStateException("Varint out of range: " + value);
+        return (int) value;
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("Malformed varint at " + (position - 1));
+    }
+
+    void readBytes(byte[] target, int offset, int length) {
+        buffer.get(position, target, offset, length);
+        position += length;
+    }
+
+    String readString() {
+        int length = readVarInt();
+        byte[] bytes = new byte[length];
+        readBytes(bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    void skipString() {
+        int length = readVarInt();
+        position += length;
+    }
+
+    int compareTo(byte[] key, int length) {
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(buffer.get(position + i) & 0xFF, key[i] & 0xFF);
+            if (cmp != 0) return cmp;
+        }
+        return Integer.compare(length, key.length);
+    }
+}
@@ -0,0 +1,514 @@
+package dictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+public class DictionaryService implements Closeable {
+    static final long COMPACTION_THRESHOLD = 16L << 20;
+
+    private final ConcurrentHashMap<String, Entry> dictionary = new ConcurrentHashMap<>();
+    private final Queue<Entry> pendingUsage = new ConcurrentLinkedQueue<>();
+    private final PopularityIndex popularity = new PopularityIndex();
+    private final TrendingIndex trending = new TrendingIndex();
+    private final Object indexLock = new Object();
+    private final ReadWriteLock storeLock = new ReentrantReadWriteLock();
+    private final AtomicInteger wordCount = new AtomicInteger();
+    private final DictionaryStore store;
+    private volatile Base base;
+    private volatile SearchIndex searchIndex;
+    private boolean popularityLoaded;
+
+    public DictionaryService() {
+        store = null;
+        popularityLoaded = true;
+        searchIndex = new SearchIndex();
+    }
+
+    private DictionaryService(Path directory) throws IOException {
+        store = DictionaryStore.open(directory, this::replay, snapshot -> {
+            base = new Base(snapshot);
+            wordCount.set(snapshot == null ? 0 : snapshot.size());
+        });
+    }
+
+    public static DictionaryService open(Path directory) throws IOException {
+        return new DictionaryService(directory);
+    }
+
+    public boolean containsWord(String word) {
+        return dictionary.containsKey(word) || inBase(base, word);
+    }
+
+    public boolean addWord(String word) {
+        return mutate(() -> {
+            synchronized (indexLock) {
+                if (containsWord(word)) return false;
+                dictionary.put(word, new Entry(word, Set.of(), 0));
+                wordCount.incrementAndGet();
+                if (popularityLoaded) popularity.add(word);
+                if (searchIndex != null) searchIndex.add(word, Set.of());
+                log(MutationLog.ADD_WORD, word, null, 0);
+                return true;
+            }
+        });
+    }
+
+    public boolean removeWord(String word) {
+        return mutate(() -> {
+            synchronized (indexLock) {
+                Entry indexed = searchIndex == null ? null : entryFor(word);
+                Base current = base;
+                boolean inSnapshot = inBase(current, word);
+                if (inSnapshot) current.removed.add(word);
+                if (dictionary.remove(word) == null && !inSnapshot) return false;
+                wordCount.decrementAndGet();
+                if (popularityLoaded) popularity.remove(word);
+                trending.remove(word);
+                if (indexed != null) {
+                    synchronized (indexed) {
+                        searchIndex.remove(word, indexed.translations);
+                    }
+                }
+                log(MutationLog.REMOVE_WORD, word, null, 0);
+                return true;
+            }
+        });
+    }
+
+    public boolean addTranslation(String word, String translation) {
+        return mutate(() -> {
+            while (true) {
+                Entry entry = entryFor(word);
+                if (entry == null) return false;
+                synchronized (entry) {
+                    if (dictionary.get(word) != entry) continue;
+                    if (entry.translations.contains(translation)) return false;
+                    Set<String> updated = new HashSet<>(entry.translations);
+                    updated.add(translation);
+                    entry.translations = Collections.unmodifiableSet(updated);
+                    SearchIndex index = searchIndex;
+                    if (index != null) index.addTranslation(word, translation);
+                    log(MutationLog.ADD_TRANSLATION, word, translation, 0);
+                    return true;
+                }
+            }
+        });
+    }
+
+    public boolean removeTranslation(String word, String translation) {
+        return mutate(() -> {
+            while (true) {
+                Entry entry = entryFor(word);
+                if (entry == null) return false;
+                synchronized (entry) {
+                    if (dictionary.get(word) != entry) continue;
+                    if (!entry.translations.contains(translation)) return false;
+                    Set<String> updated = new HashSet<>(entry.translations);
+                    updated.remove(translation);
+                    entry.translations = Collections.unmodifiableSet(updated);
+                    SearchIndex index = searchIndex;
+                    if (index != null) index.removeTranslation(word, translation);
+                    log(MutationLog.REMOVE_TRANSLATION, word, translation, 0);
+                    return true;
+                }
+            }
+        });
+    }
+
+    public Set<String> lookup(String word) {
+        Entry entry = entryFor(word);
+        if (entry == null) return null;
+        entry.lookups.increment();
+        trending.record(word);
+        if (!entry.pending.get() && entry.pending.compareAndSet(false, true)) {
+            pendingUsage.add(entry);
+        }
+        return entry.translations;
+    }
+
+    public Set<String> getTranslations(String word) {
+        Entry entry = entryFor(word);
+        return entry == null ? null : entry.translations;
+    }
+
+    public long getUsage(String word) {
+        Entry entry = entryFor(word);
+        return entry == null ? 0 : entry.lookups.sum();
+    }
+
+    public long getRecentUsage(String word) {
+        return trending.estimate(word);
+    }
+
+    public long trendingWindowNanos() {
+        return trending.windowNanos();
+    }
+
+    public boolean isEmpty() {
+        return wordCount.get() == 0;
+    }
+
+    public int size() {
+        return wordCount.get();
+    }
+
+    public List<String> wordsWithPrefix(String prefix, int limit) {
+        return searchIndex().withPrefix(prefix, limit);
+    }
+
+    public List<String> similarWords(String word, int maxDistance, int limit) {
+        return searchIndex().similar(word, maxDistance, limit);
+    }
+
+    public Set<String> wordsForTranslation(String translation) {
+        return searchIndex().wordsFor(translation);
+    }
+
+    public List<String> topWords(boolean popular, int limit) {
+        synchronized (indexLock) {
+            loadPopularity();
+            applyPendingUsage();
+            return popular ? popularity.mostPopular(limit) : popularity.leastPopular(limit);
+        }
+    }
+
+    public List<String> trendingWords(int limit) {
+        synchronized (indexLock) {
+            applyPendingUsage();
+            return trending.mostPopular(limit);
+        }
+    }
+
+    void importBatch(List<DictionarySnapshot.Record> batch) {
+        storeLock.readLock().lock();
+        try {
+            Entry[] entries = new Entry[batch.size()];
+            synchronized (indexLock) {
+                for (int i = 0; i < entries.length; i++) {
+                    String word = batch.get(i).word();
+                    Entry entry = entryFor(word);
+                    if (entry == null) {
+                        entry = new Entry(word, Set.of(), 0);
+                        dictionary.put(word, entry);
+                        wordCount.incrementAndGet();
+                        if (popularityLoaded) popularity.add(word);
+                        if (searchIndex != null) searchIndex.add(word, Set.of());
+                    }
+                    entries[i] = entry;
+                }
+            }
+            for (int i = 0; i < entries.length; i++) {
+                merge(entries[i], batch.get(i));
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    void forEachRecord(RecordVisitor visitor) throws IOException {
+        storeLock.readLock().lock();
+        try {
+            Iterator<DictionarySnapshot.Record> records = mergedRecords(base, false);
+            while (records.hasNext()) {
+                visitor.visit(records.next());
+            }
+        } finally {
+            storeLock.readLock().unlock();
+        }
+    }
+
+    public void compact() throws IOException {
+        if (store == null) return;
+        storeLock.writeLock().lock();
+        try {
+            Base current = base;
+            DictionarySnapshot snapshot = store.compact(mergedRecords(current, true));
+            base = new Base(snapshot);
+            for (Entry entry : dictionary.values()) {
+                entry.persistedLookups = entry.compactedLookups;
+            }
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (store == null) return;
+        storeLock.writeLock().lock();
+        try {
+            if (store.logSize() >= COMPACTION_THRESHOLD) {
+                compact();
+            } else {
+                for (Entry entry : dictionary.values()) {
+                    long lookups = entry.lookups.sum();
+                    if (lookups != entry.persistedLookups) {
+                        store.append(MutationLog.SET_USAGE, entry.word, null, lookups);
+                        entry.persistedLookups = lookups;
+                    }
+                }
+            }
+        } finally {
+            storeLock.writeLock().unlock();
+            store.close();
+        }
+    }
+
+    private Entry entryFor(String word) {
+        Entry entry = dictionary.get(word);
+        Base current = base;
+        if (entry != null || current == null) return entry;
+        return dictionary.computeIfAbsent(word, current::load);
+    }
+
+    private void merge(Entry entry, DictionarySnapshot.Record record) {
+        synchronized (entry) {
+            if (dictionary.get(entry.word) != entry) return;
+            Set<String> updated = null;
+            SearchIndex index = searchIndex;
+            for (String translation : record.translations()) {
+                if (entry.translations.contains(translation)) continue;
+                if (updated == null) updated = new HashSet<>(entry.translations);
+                if (updated.add(translation) && index != null) index.addTranslation(entry.word, translation);
+            }
+            if (updated != null) {
+                entry.translations = updated.size() == 1 ? Set.of(updated.iterator().next()) : Collections.unmodifiableSet(updated);
+            }
+        }
+        if (record.lookups() > 0) {
+            entry.lookups.add(record.lookups());
+            if (!entry.pending.get() && entry.pending.compareAndSet(false, true)) {
+                pendingUsage.add(entry);
+            }
+        }
+    }
+
+    private static boolean inBase(Base current, String word) {
+        return current != null && current.snapshot != null && !current.removed.contains(word) && current.snapshot.contains(word);
+    }
+
+    private boolean mutate(BooleanSupplier mutation) {
+        boolean changed;
+        storeLock.readLock().lock();
+        try {
+            changed = mutation.getAsBoolean();
+        } finally {
+            storeLock.readLock().unlock();
+        }
+        if (changed && store != null) {
+            try {
+                if (store.logSize() >= COMPACTION_THRESHOLD) compact();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return changed;
+    }
+
+    private void log(byte operation, String word, String translation, long value) {
+        if (store == null) return;
+        try {
+            store.append(operation, word, translation, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replay(byte operation, String word, String translation, long value) {
+        switch (operation) {
+            case MutationLog.ADD_WORD -> {
+                if (!containsWord(word)) {
+                    dictionary.put(word, new Entry(word, Set.of(), 0));
+                    wordCount.incrementAndGet();
+                }
+            }
+            case MutationLog.REMOVE_WORD -> {
+                boolean inSnapshot = inBase(base, word);
+                if (inSnapshot) base.removed.add(word);
+                if (dictionary.remove(word) != null || inSnapshot) wordCount.decrementAndGet();
+            }
+            case MutationLog.ADD_TRANSLATION, MutationLog.REMOVE_TRANSLATION -> {
+                Entry entry = entryFor(word);
+                if (entry == null) return;
+                Set<String> updated = new HashSet<>(entry.translations);
+                if (operation == MutationLog.ADD_TRANSLATION) updated.add(translation); else updated.remove(translation);
+                entry.translations = Collections.unmodifiableSet(updated);
+            }
+            case MutationLog.SET_USAGE -> {
+                Entry entry = entryFor(word);
+                if (entry == null) return;
+                entry.lookups.reset();
+                entry.lookups.add(value);
+                entry.indexedLookups = value;
+                entry.persistedLookups = value;
+            }
+            default -> throw new IllegalStateException("Unknown mutation type: " + operation);
+        }
+    }
+
+    private SearchIndex searchIndex() {
+        SearchIndex index = searchIndex;
+        if (index != null) return index;
+        storeLock.writeLock().lock();
+        try {
+            if (searchIndex == null) {
+                index = new SearchIndex();
+                Base current = base;
+                if (current.snapshot != null) {
+                    for (Iterator<DictionarySnapshot.Record> records = current.snapshot.iterator(); records.hasNext(); ) {
+                        DictionarySnapshot.Record record = records.next();
+                        if (!current.removed.contains(record.word()) && !dictionary.containsKey(record.word())) {
+                            index.add(record.word(), record.translations());
+                        }
+                    }
+                }
+                for (Entry entry : dictionary.values()) {
+                    index.add(entry.word, entry.translations);
+                }
+                searchIndex = index;
+            }
+            return searchIndex;
+        } finally {
+            storeLock.writeLock().unlock();
+        }
+    }
+
+    private void loadPopularity() {
+        if (popularityLoaded) return;
+        Base current = base;
+        if (current.snapshot != null) {
+            current.snapshot.forEachUsage((word, lookups) -> {
+                if (current.removed.contains(word)) return;
+                Entry entry = dictionary.get(word);
+                popularity.add(word);
+                popularity.incrementBy(word, entry == null ? lookups : entry.indexedLookups);
+            });
+        }
+        for (Entry entry : dictionary.values()) {
+            if (popularity.add(entry.word)) entry.indexedLookups = 0;
+        }
+        popularityLoaded = true;
+        pendingUsage.addAll(dictionary.values());
+    }
+
+    private void applyPendingUsage() {
+        List<String> used = new ArrayList<>();
+        Entry entry;
+        while ((entry = pendingUsage.poll()) != null) {
+            entry.pending.set(false);
+            if (dictionary.get(entry.word) != entry) continue;
+            used.add(entry.word);
+            if (!popularityLoaded) continue;
+            long total = entry.lookups.sum();
+            popularity.incrementBy(entry.word, total - entry.indexedLookups);
+            entry.indexedLookups = total;
+        }
+        if (!used.isEmpty()) trending.offer(used);
+    }
+
+    private Iterator<DictionarySnapshot.Record> mergedRecords(Base current, boolean compacting) {
+        List<Map.Entry<byte[], Entry>> live = new ArrayList<>(dictionary.size());
+        for (Entry entry : dictionary.values()) {
+            live.add(Map.entry(entry.word.getBytes(StandardCharsets.UTF_8), entry));
+        }
+        live.sort((a, b) -> Arrays.compareUnsigned(a.getKey(), b.getKey()));
+        Iterator<DictionarySnapshot.Record> snapshot = current == null || current.snapshot == null
+                ? Collections.emptyIterator() : current.snapshot.iterator();
+
+        return new Iterator<>() {
+            private final Iterator<Map.Entry<byte[], Entry>> overlay = live.iterator();
+            private DictionarySnapshot.Record nextBase = advanceBase();
+            private Map.Entry<byte[], Entry> nextOverlay = overlay.hasNext() ? overlay.next() : null;
+            private byte[] nextBaseKey = keyOf(nextBase);
+
+            @Override
+            public boolean hasNext() {
+                return nextBase != null || nextOverlay != null;
+            }
+
+            @Override
+            public DictionarySnapshot.Record next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                int cmp = nextBase == null ? 1 : nextOverlay == null ? -1 : Arrays.compareUnsigned(nextBaseKey, nextOverlay.getKey());
+                if (cmp < 0) {
+                    DictionarySnapshot.Record record = nextBase;
+                    nextBase = advanceBase();
+                    nextBaseKey = keyOf(nextBase);
+                    return record;
+                }
+                if (cmp == 0) {
+                    nextBase = advanceBase();
+                    nextBaseKey = keyOf(nextBase);
+                }
+                Entry entry = nextOverlay.getValue();
+                nextOverlay = overlay.hasNext() ? overlay.next() : null;
+                long lookups = entry.lookups.sum();
+                if (compacting) entry.compactedLookups = lookups;
+                return new DictionarySnapshot.Record(entry.word, lookups, entry.translations);
+            }
+
+            private DictionarySnapshot.Record advanceBase() {
+                while (snapshot.hasNext()) {
+                    DictionarySnapshot.Record record = snapshot.next();
+                    if (!current.removed.contains(record.word())) return record;
+                }
+                return null;
+            }
+
+            private byte[] keyOf(DictionarySnapshot.Record record) {
+                return record == null ? null : record.word().getBytes(StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    interface RecordVisitor {
+        void visit(DictionarySnapshot.Record record) throws IOException;
+    }
+
+    private static class Base {
+        private final DictionarySnapshot snapshot;
+        private final Set<String> removed = ConcurrentHashMap.newKeySet();
+
+        Base(DictionarySnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        Entry load(String word) {
+            if (snapshot == null || removed.contains(word)) return null;
+            DictionarySnapshot.Record record = snapshot.find(word);
+            if (record == null) return null;
+            return new Entry(word, Collections.unmodifiableSet(new HashSet<>(record.translations())), record.lookups());
+        }
+    }
+
+    private static class Entry {
+        private final String word;
+        private final LongAdder lookups = new LongAdder();
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private volatile Set<String> translations;
+        private long indexedLookups;
+        private long persistedLookups;
+        private long compactedLookups;
+
+        Entry(String word, Set<String> translations, long lookups) {
+            this.word = word;
+            this.translations = translations;
+            this.lookups.add(lookups);
+            this.indexedLookups = lookups;
+            this.persistedLookups = lookups;
+            this.compactedLookups = lookups;
+        }
+    }
+}
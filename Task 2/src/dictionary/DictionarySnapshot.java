@@ -0,0 +1,251 @@
+package dictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.ObjLongConsumer;
+
+public final class DictionarySnapshot implements Closeable {
+    static final int MAGIC = 0x44494354;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int BLOCK_SIZE = 16;
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int entryCount;
+    private final int blockCount;
+    private final int indexOffset;
+
+    private DictionarySnapshot(FileChannel channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        ByteCursor header = new ByteCursor(buffer, 0);
+        if (buffer.limit() < HEADER_SIZE || header.readInt() != MAGIC) throw new IOException("Not a dictionary snapshot");
+        int version = header.readInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version: " + version);
+        entryCount = header.readInt();
+        blockCount = header.readInt();
+        long index = header.readLong();
+        if (index < HEADER_SIZE || index + (long) blockCount * Long.BYTES > buffer.limit()) {
+            throw new IOException("Corrupted snapshot index");
+        }
+        indexOffset = (int) index;
+    }
+
+    public static DictionarySnapshot open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Snapshot is larger than 2 GB: " + file);
+            return new DictionarySnapshot(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    public boolean contains(String word) {
+        return locate(word.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    public Record find(String word) {
+        int position = locate(word.getBytes(StandardCharsets.UTF_8));
+        if (position < 0) return null;
+        ByteCursor cursor = new ByteCursor(buffer, position);
+        long lookups = cursor.readVarLong();
+        return new Record(word, lookups, readTranslations(cursor));
+    }
+
+    public void forEachUsage(ObjLongConsumer<String> consumer) {
+        EntryReader reader = new EntryReader();
+        while (reader.next()) {
+            long lookups = reader.cursor.readVarLong();
+            skipTranslations(reader.cursor);
+            consumer.accept(reader.word(), lookups);
+        }
+    }
+
+    public Iterator<Record> iterator() {
+        EntryReader reader = new EntryReader();
+        return new Iterator<>() {
+            private Record pending;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null && reader.next()) {
+                    String word = reader.word();
+                    long lookups = reader.cursor.readVarLong();
+                    pending = new Record(word, lookups, readTranslations(reader.cursor));
+                }
+                return pending != null;
+            }
+
+            @Override
+            public Record next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Record record = pending;
+                pending = null;
+                return record;
+            }
+        };
+    }
+
+    public static void write(Path file, Iterator<Record> records) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteSink sink = new ByteSink(FLUSH_THRESHOLD * 2);
+            ByteSink index = new ByteSink(1024);
+            long position = HEADER_SIZE;
+            channel.position(HEADER_SIZE);
+
+            byte[] previous = new byte[0];
+            int count = 0;
+            while (records.hasNext()) {
+                Record record = records.next();
+                byte[] key = record.word().getBytes(StandardCharsets.UTF_8);
+                if (count > 0 && Arrays.compareUnsigned(previous, key) >= 0) {
+                    throw new IllegalArgumentException("Snapshot records must be sorted and unique: " + record.word());
+                }
+                int shared = 0;
+                if (count % BLOCK_SIZE == 0) {
+                    index.writeLong(position + sink.size());
+                } else {
+                    shared = Arrays.mismatch(previous, key);
+                    if (shared < 0) shared = key.length;
+                }
+                sink.writeVarLong(shared);
+                sink.writeVarLong(key.length - shared);
+                sink.writeBytes(key, shared, key.length - shared);
+                sink.writeVarLong(record.lookups());
+                sink.writeVarLong(record.translations().size());
+                for (String translation : record.translations()) {
+                    sink.writeString(translation);
+                }
+                previous = key;
+                count++;
+
+                if (sink.size() >= FLUSH_THRESHOLD) {
+                    position += writeFully(channel, sink.asBuffer());
+                    sink.reset();
+                }
+            }
+            position += writeFully(channel, sink.asBuffer());
+            long indexOffset = position;
+            position += writeFully(channel, index.asBuffer());
+            if (position > Integer.MAX_VALUE) throw new IOException("Snapshot would exceed 2 GB");
+
+            ByteSink header = new ByteSink(HEADER_SIZE);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(count);
+            header.writeInt((count + BLOCK_SIZE - 1) / BLOCK_SIZE);
+            header.writeLong(indexOffset);
+            header.writeLong(0);
+            channel.position(0);
+            writeFully(channel, header.asBuffer());
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int locate(byte[] key) {
+        int low = 0;
+        int high = blockCount - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            ByteCursor cursor = new ByteCursor(buffer, blockOffset(middle));
+            cursor.readVarInt();
+            int length = cursor.readVarInt();
+            if (cursor.compareTo(key, length) <= 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) return -1;
+
+        ByteCursor cursor = new ByteCursor(buffer, blockOffset(block));
+        byte[] current = new byte[0];
+        int entries = Math.min(BLOCK_SIZE, entryCount - block * BLOCK_SIZE);
+        for (int i = 0; i < entries; i++) {
+            current = readKey(cursor, current);
+            int cmp = Arrays.compareUnsigned(current, key);
+            if (cmp == 0) return cursor.position();
+            if (cmp > 0) return -1;
+            cursor.readVarLong();
+            skipTranslations(cursor);
+        }
+        return -1;
+    }
+
+    private int blockOffset(int block) {
+        return (int) buffer.getLong(indexOffset + block * Long.BYTES);
+    }
+
+    private static byte[] readKey(ByteCursor cursor, byte[] previous) {
+        int shared = cursor.readVarInt();
+        int suffix = cursor.readVarInt();
+        byte[] key = Arrays.copyOf(previous, shared + suffix);
+        cursor.readBytes(key, shared, suffix);
+        return key;
+    }
+
+    private static List<String> readTranslations(ByteCursor cursor) {
+        int count = cursor.readVarInt();
+        List<String> translations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            translations.add(cursor.readString());
+        }
+        return translations;
+    }
+
+    private static void skipTranslations(ByteCursor cursor) {
+        for (int count = cursor.readVarInt(); count > 0; count--) {
+            cursor.skipString();
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+        int written = source.remaining();
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+        return written;
+    }
+
+    private class EntryReader {
+        private final ByteCursor cursor = new ByteCursor(buffer, HEADER_SIZE);
+        private byte[] key = new byte[0];
+        private int read;
+
+        boolean next() {
+            if (read == entryCount) return false;
+            key = readKey(cursor, key);
+            read++;
+            return true;
+        }
+
+        String word() {
+            return new String(key, StandardCharsets.UTF_8);
+        }
+    }
+
+    public record Record(String word, long lookups, Collection<String> translations) {
+    }
+}
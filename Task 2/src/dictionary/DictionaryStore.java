@@ -0,0 +1,110 @@
+package dictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Iterator;
+
+final class DictionaryStore implements Closeable {
+    private static final String CURRENT = "CURRENT";
+    private static final String LOG = "mutations.log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dict";
+
+    private final Path directory;
+    private final MutationLog log;
+    private DictionarySnapshot snapshot;
+    private long generation;
+
+    private DictionaryStore(Path directory, DictionarySnapshot snapshot, long generation, MutationLog log) {
+        this.directory = directory;
+        this.snapshot = snapshot;
+        this.generation = generation;
+        this.log = log;
+    }
+
+    static DictionaryStore open(Path directory, MutationLog.Replayer replayer, SnapshotListener listener) throws IOException {
+        Files.createDirectories(directory);
+        Path current = directory.resolve(CURRENT);
+        long generation = 0;
+        DictionarySnapshot snapshot = null;
+        if (Files.exists(current)) {
+            generation = Long.parseLong(Files.readString(current, StandardCharsets.UTF_8).trim());
+            snapshot = DictionarySnapshot.open(snapshotFile(directory, generation));
+        }
+        deleteStaleSnapshots(directory, generation);
+        listener.snapshotOpened(snapshot);
+        try {
+            return new DictionaryStore(directory, snapshot, generation, MutationLog.open(directory.resolve(LOG), replayer));
+        } catch (IOException | RuntimeException e) {
+            if (snapshot != null) snapshot.close();
+            throw e;
+        }
+    }
+
+    DictionarySnapshot snapshot() {
+        return snapshot;
+    }
+
+    void append(byte operation, String word, String translation, long value) throws IOException {
+        log.append(operation, word, translation, value);
+    }
+
+    long logSize() throws IOException {
+        return log.size();
+    }
+
+    DictionarySnapshot compact(Iterator<DictionarySnapshot.Record> records) throws IOException {
+        long next = generation + 1;
+        Path file = snapshotFile(directory, next);
+        DictionarySnapshot.write(file, records);
+        DictionarySnapshot opened = DictionarySnapshot.open(file);
+
+        Path pointer = directory.resolve(CURRENT + ".tmp");
+        Files.writeString(pointer, Long.toString(next), StandardCharsets.UTF_8);
+        Files.move(pointer, directory.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.reset();
+
+        DictionarySnapshot previous = snapshot;
+        snapshot = opened;
+        generation = next;
+        if (previous != null) previous.close();
+        deleteStaleSnapshots(directory, generation);
+        return opened;
+    }
+
+    void force() throws IOException {
+        log.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            log.close();
+        } finally {
+            if (snapshot != null) snapshot.close();
+        }
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    private static void deleteStaleSnapshots(Path directory, long generation) throws IOException {
+        String keep = snapshotFile(directory, generation).getFileName().toString();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                if (file.getFileName().toString().equals(keep)) continue;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    interface SnapshotListener {
+        void snapshotOpened(DictionarySnapshot snapshot);
+    }
+}
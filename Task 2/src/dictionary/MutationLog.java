@@ -0,0 +1,111 @@
+package dictionary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+final class MutationLog implements Closeable {
+    static final byte ADD_WORD = 1;
+    static final byte REMOVE_WORD = 2;
+    static final byte ADD_TRANSLATION = 3;
+    static final byte REMOVE_TRANSLATION = 4;
+    static final byte SET_USAGE = 5;
+
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final ByteSink sink = new ByteSink(256);
+    private final CRC32 crc = new CRC32();
+
+    private MutationLog(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static MutationLog open(Path file, Replayer replayer) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long valid = replay(channel, replayer);
+            if (valid < channel.size()) channel.truncate(valid);
+            channel.position(valid);
+            return new MutationLog(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    synchronized void append(byte operation, String word, String translation, long value) throws IOException {
+        sink.reset();
+        sink.writeInt(0);
+        sink.writeInt(0);
+        sink.writeByte(operation);
+        sink.writeString(word);
+        if (operation == ADD_TRANSLATION || operation == REMOVE_TRANSLATION) sink.writeString(translation);
+        if (operation == SET_USAGE) sink.writeVarLong(value);
+
+        ByteBuffer record = sink.asBuffer();
+        crc.reset();
+        crc.update(sink.asBuffer(RECORD_HEADER));
+        record.putInt(0, sink.size() - RECORD_HEADER);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    synchronized void force() throws IOException {
+        channel.force(false);
+    }
+
+    synchronized void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private static long replay(FileChannel channel, Replayer replayer) throws IOException {
+        long size = channel.size();
+        if (size == 0) return 0;
+        if (size > Integer.MAX_VALUE) throw new IOException("Mutation log is larger than 2 GB");
+        ByteBuffer log = ByteBuffer.allocate((int) size);
+        while (log.hasRemaining() && channel.read(log, log.position()) >= 0) {
+        }
+        CRC32 checksum = new CRC32();
+        int position = 0;
+        while (position + RECORD_HEADER <= size) {
+            int length = log.getInt(position);
+            int expected = log.getInt(position + Integer.BYTES);
+            int start = position + RECORD_HEADER;
+            if (length <= 0 || start + (long) length > size) break;
+            checksum.reset();
+            checksum.update(log.slice(start, length));
+            if ((int) checksum.getValue() != expected) break;
+
+            ByteCursor cursor = new ByteCursor(log, start);
+            byte operation = cursor.readByte();
+            String word = cursor.readString();
+            String translation = operation == ADD_TRANSLATION || operation == REMOVE_TRANSLATION ? cursor.readString() : null;
+            long value = operation == SET_USAGE ? cursor.readVarLong() : 0;
+            replayer.apply(operation, word, translation, value);
+            position = start + length;
+        }
+        return position;
+    }
+
+    interface Replayer {
+        void apply(byte operation, String word, String translation, long value);
+    }
+}
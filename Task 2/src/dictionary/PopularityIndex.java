@@ -0,0 +1,147 @@
+package dictionary;
+
+import java.util.*;
+
+public class PopularityIndex {
+    private final Map<String, Node> nodes = new HashMap<>();
+    private Bucket lowest;
+    private Bucket highest;
+
+    public boolean add(String word) {
+        if (nodes.containsKey(word)) return false;
+        Node node = new Node(word);
+        Bucket bucket = lowest != null && lowest.count == 0 ? lowest : insertBucketAfter(null, 0);
+        bucket.append(node);
+        nodes.put(word, node);
+        return true;
+    }
+
+    public long increment(String word) {
+        Node node = nodes.get(word);
+        if (node == null) throw new NoSuchElementException("Unknown word: " + word);
+        Bucket current = node.bucket;
+        long count = current.count + 1;
+        Bucket target = current.next != null && current.next.count == count ? current.next : insertBucketAfter(current, count);
+        current.unlink(node);
+        target.append(node);
+        if (current.isEmpty()) removeBucket(current);
+        return count;
+    }
+
+    public long incrementBy(String word, long delta) {
+        if (delta < 0) throw new IllegalArgumentException("Delta must not be negative: " + delta);
+        Node node = nodes.get(word);
+        if (node == null) throw new NoSuchElementException("Unknown word: " + word);
+        Bucket current = node.bucket;
+        long count = current.count + delta;
+        if (delta == 0) return count;
+
+        Bucket previous = current;
+        while (previous.next != null && previous.next.count <= count) {
+            previous = previous.next;
+        }
+        Bucket target = previous.count == count ? previous : insertBucketAfter(previous, count);
+        current.unlink(node);
+        target.append(node);
+        if (current.isEmpty()) removeBucket(current);
+        return count;
+    }
+
+    public boolean remove(String word) {
+        Node node = nodes.remove(word);
+        if (node == null) return false;
+        Bucket bucket = node.bucket;
+        bucket.unlink(node);
+        if (bucket.isEmpty()) removeBucket(bucket);
+        return true;
+    }
+
+    public long getCount(String word) {
+        Node node = nodes.get(word);
+        return node == null ? 0 : node.bucket.count;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public List<String> mostPopular(int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, nodes.size()));
+        for (Bucket bucket = highest; bucket != null && result.size() < limit; bucket = bucket.prev) {
+            for (Node node = bucket.head; node != null && result.size() < limit; node = node.next) {
+                result.add(node.word);
+            }
+        }
+        return result;
+    }
+
+    public List<String> leastPopular(int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, nodes.size()));
+        for (Bucket bucket = lowest; bucket != null && result.size() < limit; bucket = bucket.next) {
+            for (Node node = bucket.head; node != null && result.size() < limit; node = node.next) {
+                result.add(node.word);
+            }
+        }
+        return result;
+    }
+
+    private Bucket insertBucketAfter(Bucket previous, long count) {
+        Bucket bucket = new Bucket(count);
+        bucket.prev = previous;
+        bucket.next = previous == null ? lowest : previous.next;
+        if (bucket.next != null) bucket.next.prev = bucket; else highest = bucket;
+        if (previous != null) previous.next = bucket; else lowest = bucket;
+        return bucket;
+    }
+
+    private void removeBucket(Bucket bucket) {
+        if (bucket.prev != null) bucket.prev.next = bucket.next; else lowest = bucket.next;
+        if (bucket.next != null) bucket.next.prev = bucket.prev; else highest = bucket.prev;
+    }
+
+    private static class Bucket {
+        private final long count;
+        private Bucket prev;
+        private Bucket next;
+        private Node head;
+        private Node tail;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+
+        void append(Node node) {
+            node.bucket = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail != null) tail.next = node; else head = node;
+            tail = node;
+        }
+
+        void unlink(Node node) {
+            if (node.prev != null) node.prev.next = node.next; else head = node.next;
+            if (node.next != null) node.next.prev = node.prev; else tail = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+    }
+
+    private static class Node {
+        private final String word;
+        private Bucket bucket;
+        private Node prev;
+        private Node next;
+
+        Node(String word) {
+            this.word = word;
+        }
+    }
+}
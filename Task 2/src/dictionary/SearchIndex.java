@@ -0,0 +1,266 @@
+package dictionary;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class SearchIndex {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("", 0, false);
+    private final ReadWriteLock trieLock = new ReentrantReadWriteLock();
+    private final Map<String, Set<String>> reverse = new ConcurrentHashMap<>();
+
+    public void add(String word, Collection<String> translations) {
+        trieLock.writeLock().lock();
+        try {
+            insert(word);
+        } finally {
+            trieLock.writeLock().unlock();
+        }
+        for (String translation : translations) {
+            addTranslation(word, translation);
+        }
+    }
+
+    public void remove(String word, Collection<String> translations) {
+        trieLock.writeLock().lock();
+        try {
+            delete(word);
+        } finally {
+            trieLock.writeLock().unlock();
+        }
+        for (String translation : translations) {
+            removeTranslation(word, translation);
+        }
+    }
+
+    public void addTranslation(String word, String translation) {
+        reverse.compute(translation, (key, current) -> {
+            if (current == null) return Set.of(word);
+            if (current.contains(word)) return current;
+            if (current.size() > 1) {
+                current.add(word);
+                return current;
+            }
+            Set<String> grown = ConcurrentHashMap.newKeySet();
+            grown.addAll(current);
+            grown.add(word);
+            return grown;
+        });
+    }
+
+    public void removeTranslation(String word, String translation) {
+        reverse.computeIfPresent(translation, (key, current) -> {
+            if (!current.contains(word)) return current;
+            if (current.size() == 1) return null;
+            current.remove(word);
+            return current;
+        });
+    }
+
+    public Set<String> wordsFor(String translation) {
+        Set<String> words = reverse.get(translation);
+        return words == null ? Set.of() : Collections.unmodifiableSet(words);
+    }
+
+    public List<String> withPrefix(String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        trieLock.readLock().lock();
+        try {
+            Node node = root;
+            while (node.depth < prefix.length()) {
+                Node child = node.child(prefix.charAt(node.depth));
+                if (child == null) return result;
+                int end = Math.min(child.depth, prefix.length());
+                if (!child.word.regionMatches(node.depth, prefix, node.depth, end - node.depth)) return result;
+                node = child;
+            }
+            collect(node, result, limit);
+        } finally {
+            trieLock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public List<String> similar(String query, int maxDistance, int limit) {
+        if (maxDistance < 0) throw new IllegalArgumentException("Distance must not be negative: " + maxDistance);
+        Search search = new Search(query, maxDistance);
+        trieLock.readLock().lock();
+        try {
+            search.visit(root, 0);
+        } finally {
+            trieLock.readLock().unlock();
+        }
+        List<Match> matches = search.matches;
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::word));
+        List<String> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(matches.get(i).word());
+        }
+        return result;
+    }
+
+    private void insert(String word) {
+        Node node = root;
+        while (node.depth < word.length()) {
+            char c = word.charAt(node.depth);
+            int index = node.indexOf(c);
+            if (index < 0) {
+                node.insertChild(-index - 1, new Node(word, word.length(), true));
+                return;
+            }
+            Node child = node.children[index];
+            int end = Math.min(child.depth, word.length());
+            int shared = node.depth + 1;
+            while (shared < end && word.charAt(shared) == child.word.charAt(shared)) shared++;
+            if (shared < child.depth) {
+                Node split = new Node(child.word, shared, false);
+                split.children = new Node[] {child};
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+        }
+        node.terminal = true;
+        node.word = word;
+    }
+
+    private void delete(String word) {
+        Node parent = null;
+        Node grandparent = null;
+        Node node = root;
+        while (node.depth < word.length()) {
+            Node child = node.child(word.charAt(node.depth));
+            if (child == null || child.depth > word.length()
+                    || !child.word.regionMatches(node.depth, word, node.depth, child.depth - node.depth)) return;
+            grandparent = parent;
+            parent = node;
+            node = child;
+        }
+        if (!node.terminal) return;
+        node.terminal = false;
+        if (parent == null) return;
+        if (node.children.length == 1) {
+            parent.replaceChild(node, node.children[0]);
+        } else if (node.children.length == 0) {
+            parent.removeChild(node);
+            if (grandparent != null && !parent.terminal && parent.children.length == 1) {
+                grandparent.replaceChild(parent, parent.children[0]);
+            }
+        }
+    }
+
+    private static void collect(Node node, List<String> result, int limit) {
+        if (result.size() >= limit) return;
+        if (node.terminal) result.add(node.word);
+        for (Node child : node.children) {
+            if (result.size() >= limit) return;
+            collect(child, result, limit);
+        }
+    }
+
+    private static class Search {
+        private final char[] query;
+        private final int maxDistance;
+        private final List<Match> matches = new ArrayList<>();
+        private final int[][] rows;
+
+        Search(String query, int maxDistance) {
+            this.query = query.toCharArray();
+            this.maxDistance = maxDistance;
+            rows = new int[query.length() + maxDistance + 2][];
+            int[] first = new int[query.length() + 1];
+            for (int j = 0; j < first.length; j++) first[j] = j <= maxDistance ? j : maxDistance + 1;
+            rows[0] = first;
+        }
+
+        void visit(Node node, int from) {
+            for (int depth = from + 1; depth <= node.depth; depth++) {
+                if (depth >= rows.length) return;
+                if (rows[depth] == null) rows[depth] = new int[query.length + 1];
+                if (fillRow(node.word.charAt(depth - 1), rows[depth - 1], rows[depth], depth) > maxDistance) return;
+            }
+            if (node.terminal && query.length - node.depth <= maxDistance) {
+                int distance = rows[node.depth][query.length];
+                if (distance <= maxDistance) matches.add(new Match(node.word, distance));
+            }
+            for (Node child : node.children) {
+                visit(child, node.depth);
+            }
+        }
+
+        private int fillRow(char c, int[] above, int[] row, int depth) {
+            int outside = maxDistance + 1;
+            int low = Math.max(1, depth - maxDistance);
+            int high = Math.min(query.length, depth + maxDistance);
+            row[0] = Math.min(depth, outside);
+            if (low > 1) row[low - 1] = outside;
+            int min = row[0];
+            for (int j = low; j <= high; j++) {
+                int cost = query[j - 1] == c ? 0 : 1;
+                int value = Math.min(Math.min(row[j - 1], above[j]) + 1, above[j - 1] + cost);
+                if (value > outside) value = outside;
+                row[j] = value;
+                if (value < min) min = value;
+            }
+            if (high < query.length) row[high + 1] = outside;
+            return min;
+        }
+    }
+
+    private static class Node {
+        private String word;
+        private final int depth;
+        private boolean terminal;
+        private Node[] children = NO_CHILDREN;
+
+        Node(String word, int depth, boolean terminal) {
+            this.word = word;
+            this.depth = depth;
+            this.terminal = terminal;
+        }
+
+        Node child(char c) {
+            int index = indexOf(c);
+            return index < 0 ? null : children[index];
+        }
+
+        int indexOf(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char key = children[mid].word.charAt(depth);
+                if (key < c) low = mid + 1;
+                else if (key > c) high = mid - 1;
+                else return mid;
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int index, Node child) {
+            Node[] updated = new Node[children.length + 1];
+            System.arraycopy(children, 0, updated, 0, index);
+            updated[index] = child;
+            System.arraycopy(children, index, updated, index + 1, children.length - index);
+            children = updated;
+        }
+
+        void replaceChild(Node old, Node replacement) {
+            children[indexOf(old.word.charAt(depth))] = replacement;
+        }
+
+        void removeChild(Node child) {
+            int index = indexOf(child.word.charAt(depth));
+            Node[] updated = children.length == 1 ? NO_CHILDREN : new Node[children.length - 1];
+            System.arraycopy(children, 0, updated, 0, index);
+            System.arraycopy(children, index + 1, updated, index, children.length - index - 1);
+            children = updated;
+        }
+    }
+
+    private record Match(String word, int distance) {
+    }
+}
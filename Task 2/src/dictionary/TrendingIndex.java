@@ -0,0 +1,246 @@
+package dictionary;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.LongSupplier;
+
+public class TrendingIndex {
+    public static final long DEFAULT_SLICE_NANOS = 5L * 60 * 1_000_000_000L;
+    public static final int DEFAULT_SLICES = 12;
+    public static final int DEFAULT_WIDTH = 1 << 12;
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final int MAX_SHARDS = 8;
+    public static final int DEFAULT_SHARDS = Math.min(MAX_SHARDS, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private static final int DIRTY_STRIDE = 16;
+
+    private final long sliceNanos;
+    private final int width;
+    private final int depth;
+    private final LongSupplier clock;
+    private final AtomicIntegerArray[] banks;
+    private final AtomicIntegerArray dirty;
+    private final int[] window;
+    private final int[][] slices;
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final String[] heapWords;
+    private final long[] heapCounts;
+    private int heapSize;
+    private long currentSlice;
+
+    public TrendingIndex() {
+        this(DEFAULT_SLICE_NANOS, DEFAULT_SLICES, DEFAULT_WIDTH, DEFAULT_DEPTH, DEFAULT_CAPACITY, System::nanoTime);
+    }
+
+    public TrendingIndex(long sliceNanos, int slices, int width, int depth, int capacity, LongSupplier clock) {
+        this(sliceNanos, slices, width, depth, capacity, DEFAULT_SHARDS, clock);
+    }
+
+    public TrendingIndex(long sliceNanos, int slices, int width, int depth, int capacity, int shards, LongSupplier clock) {
+        if (sliceNanos <= 0 || slices <= 0 || depth <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Slice length, slice count, depth and capacity must be positive");
+        }
+        if (width <= 0 || Integer.bitCount(width) != 1) throw new IllegalArgumentException("Width must be a power of two: " + width);
+        if (shards <= 0 || shards > MAX_SHARDS || Integer.bitCount(shards) != 1) {
+            throw new IllegalArgumentException("Shard count must be a power of two up to " + MAX_SHARDS + ": " + shards);
+        }
+        this.sliceNanos = sliceNanos;
+        this.width = width;
+        this.depth = depth;
+        this.clock = clock;
+        this.banks = new AtomicIntegerArray[2 * shards];
+        for (int i = 0; i < banks.length; i++) {
+            banks[i] = new AtomicIntegerArray(width * depth);
+        }
+        this.dirty = new AtomicIntegerArray(banks.length * DIRTY_STRIDE);
+        this.window = new int[width * depth];
+        this.slices = new int[slices][width * depth];
+        this.heapWords = new String[capacity];
+        this.heapCounts = new long[capacity];
+        this.currentSlice = Math.floorDiv(clock.getAsLong(), sliceNanos);
+    }
+
+    public void record(String word) {
+        int shards = banks.length / 2;
+        int shard = (int) (Math.floorDiv(clock.getAsLong(), sliceNanos) & 1) * shards
+                + (spread(System.identityHashCode(Thread.currentThread())) & (shards - 1));
+        AtomicIntegerArray counters = banks[shard];
+        int hash = spread(word.hashCode());
+        int step = spread(hash ^ 0x85EBCA6B) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters.getAndIncrement(row * width + ((hash + row * step) & (width - 1)));
+        }
+        if (dirty.get(shard * DIRTY_STRIDE) == 0) dirty.set(shard * DIRTY_STRIDE, 1);
+    }
+
+    public synchronized long estimate(String word) {
+        advance();
+        return windowCount(word);
+    }
+
+    public synchronized void offer(String word) {
+        offer(List.of(word));
+    }
+
+    public synchronized void offer(Collection<String> words) {
+        advance();
+        for (String word : words) {
+            admit(word);
+        }
+    }
+
+    private void admit(String word) {
+        long count = windowCount(word);
+        Integer position = positions.get(word);
+        if (position != null) {
+            heapCounts[position] = count;
+            siftDown(siftUp(position));
+        } else if (count == 0) {
+            return;
+        } else if (heapSize < heapWords.length) {
+            place(heapSize++, word, count);
+            siftUp(heapSize - 1);
+        } else if (count > heapCounts[0]) {
+            positions.remove(heapWords[0]);
+            place(0, word, count);
+            siftDown(0);
+        }
+    }
+
+    public synchronized boolean remove(String word) {
+        Integer position = positions.remove(word);
+        if (position == null) return false;
+        int last = --heapSize;
+        if (position != last) {
+            place(position, heapWords[last], heapCounts[last]);
+            siftDown(siftUp(position));
+        }
+        heapWords[last] = null;
+        return true;
+    }
+
+    public synchronized List<String> mostPopular(int limit) {
+        advance();
+        refresh();
+        Integer[] order = new Integer[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(heapCounts[b], heapCounts[a]));
+        List<String> result = new ArrayList<>(Math.min(limit, heapSize));
+        for (int i = 0; i < order.length && result.size() < limit; i++) {
+            result.add(heapWords[order[i]]);
+        }
+        return result;
+    }
+
+    public long windowNanos() {
+        return sliceNanos * slices.length;
+    }
+
+    private void advance() {
+        long slice = Math.floorDiv(clock.getAsLong(), sliceNanos);
+        boolean rotated = slice > currentSlice;
+        if (rotated) rotate(slice);
+        drain((int) (slice & 1), slice);
+        if (rotated) refresh();
+    }
+
+    private void rotate(long slice) {
+        long previous = currentSlice;
+        for (long expired = Math.max(previous + 1, slice - slices.length + 1); expired <= slice; expired++) {
+            int[] counters = slices[(int) Math.floorMod(expired, (long) slices.length)];
+            for (int cell = 0; cell < counters.length; cell++) {
+                window[cell] -= counters[cell];
+            }
+            Arrays.fill(counters, 0);
+        }
+        currentSlice = slice;
+        drain((int) (previous & 1), slice == previous + 1 && slices.length > 1 ? previous : slice);
+    }
+
+    private void drain(int bank, long slice) {
+        int shards = banks.length / 2;
+        int[] counters = slices[(int) Math.floorMod(slice, (long) slices.length)];
+        for (int shard = bank * shards; shard < (bank + 1) * shards; shard++) {
+            if (dirty.get(shard * DIRTY_STRIDE) == 0) continue;
+            dirty.set(shard * DIRTY_STRIDE, 0);
+            AtomicIntegerArray cells = banks[shard];
+            for (int cell = 0; cell < counters.length; cell++) {
+                if (cells.get(cell) == 0) continue;
+                int count = cells.getAndSet(cell, 0);
+                counters[cell] += count;
+                window[cell] += count;
+            }
+        }
+    }
+
+    private void refresh() {
+        int kept = 0;
+        for (int i = 0; i < heapSize; i++) {
+            long count = windowCount(heapWords[i]);
+            if (count == 0) {
+                positions.remove(heapWords[i]);
+                continue;
+            }
+            place(kept++, heapWords[i], count);
+        }
+        Arrays.fill(heapWords, kept, heapSize, null);
+        heapSize = kept;
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(i);
+        }
+    }
+
+    private long windowCount(String word) {
+        int hash = spread(word.hashCode());
+        int step = spread(hash ^ 0x85EBCA6B) | 1;
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, window[row * width + ((hash + row * step) & (width - 1))]);
+        }
+        return Math.max(min, 0);
+    }
+
+    private int siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (heapCounts[parent] <= heapCounts[position]) break;
+            swap(position, parent);
+            position = parent;
+        }
+        return position;
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < heapSize && heapCounts[left] < heapCounts[smallest]) smallest = left;
+            if (right < heapSize && heapCounts[right] < heapCounts[smallest]) smallest = right;
+            if (smallest == position) return;
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String word = heapWords[a];
+        long count = heapCounts[a];
+        place(a, heapWords[b], heapCounts[b]);
+        place(b, word, count);
+    }
+
+    private void place(int position, String word, long count) {
+        heapWords[position] = word;
+        heapCounts[position] = count;
+        positions.put(word, position);
+    }
+
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
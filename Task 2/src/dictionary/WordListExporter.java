@@ -0,0 +1,78 @@
+package dictionary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class WordListExporter {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final DictionaryService dictionary;
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private char separator;
+    private long lines;
+
+    public WordListExporter(DictionaryService dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public long exportFile(Path file) throws IOException {
+        separator = (char) WordListImporter.separatorFor(file);
+        lines = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            dictionary.forEachRecord(record -> {
+                if (record.translations().isEmpty()) {
+                    writeLine(writer, record.word(), "", record.lookups());
+                    return;
+                }
+                long lookups = record.lookups();
+                for (String translation : record.translations()) {
+                    writeLine(writer, record.word(), translation, lookups);
+                    lookups = 0;
+                }
+            });
+        }
+        return lines;
+    }
+
+    private void writeLine(Writer writer, String word, String translation, long lookups) throws IOException {
+        line.setLength(0);
+        appendField(word);
+        line.append(separator);
+        appendField(translation);
+        if (lookups > 0) line.append(separator).append(lookups);
+        line.append('\n');
+        if (chars.length < line.length()) chars = new char[line.capacity()];
+        line.getChars(0, line.length(), chars, 0);
+        writer.write(chars, 0, line.length());
+        lines++;
+    }
+
+    private void appendField(String value) {
+        if (!needsQuotes(value)) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private boolean needsQuotes(String value) {
+        if (value.startsWith("\"")) return true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == '\n' || c == '\r' || c == '"' && separator == ',') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,233 @@
+package dictionary;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WordListImporter {
+    static final int CHUNK_SIZE = 4 << 20;
+    private static final int BATCH_SIZE = 4096;
+    private static final int SAMPLE_SIZE = 64 << 10;
+
+    private final DictionaryService dictionary;
+    private final int threads;
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private Map<String, String> translations;
+    private byte separator;
+
+    public WordListImporter(DictionaryService dictionary, int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        this.dictionary = dictionary;
+        this.threads = threads;
+    }
+
+    public static byte separatorFor(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? (byte) ',' : (byte) '\t';
+    }
+
+    public Report importFile(Path file) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        separator = separatorFor(file);
+        translations = new ConcurrentHashMap<>((int) Math.min(estimateLines(file), 1 << 22));
+        lines.reset();
+        rejected.reset();
+
+        BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(threads + 2);
+        for (int i = 0; i < threads + 2; i++) {
+            free.add(new byte[CHUNK_SIZE]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] buffer = free.take();
+            int filled = 0;
+            boolean first = true;
+            while (failure.get() == null) {
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                if (read > 0) filled += read;
+                if (read >= 0 && filled < buffer.length) continue;
+
+                boolean end = read < 0;
+                int start = first && hasByteOrderMark(buffer, filled) ? 3 : 0;
+                first = false;
+                int cut = end ? filled : lastRecordEnd(buffer, start, filled);
+                if (cut <= start && !end) throw new IllegalArgumentException("Record longer than " + CHUNK_SIZE + " bytes in " + file);
+
+                byte[] next = end ? null : free.take();
+                if (next != null) System.arraycopy(buffer, cut, next, 0, filled - cut);
+                byte[] chunk = buffer;
+                executor.execute(() -> {
+                    try {
+                        parse(chunk, start, cut);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        free.add(chunk);
+                    }
+                });
+                if (end) break;
+                filled -= cut;
+                buffer = next;
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            translations = null;
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException e) throw e;
+        if (error != null) throw new IllegalStateException(error);
+        dictionary.compact();
+        return new Report(lines.sum(), rejected.sum(), System.nanoTime() - started);
+    }
+
+    private void parse(byte[] buffer, int position, int limit) {
+        List<DictionarySnapshot.Record> batch = new ArrayList<>(BATCH_SIZE);
+        String[] fields = new String[3];
+        String word = null;
+        List<String> wordTranslations = new ArrayList<>();
+        long lookups = 0;
+        long lineCount = 0;
+        long rejectedCount = 0;
+
+        while (position < limit) {
+            int end = recordEnd(buffer, position, limit);
+            int lineEnd = end > position && buffer[end - 1] == '\r' ? end - 1 : end;
+            int start = position;
+            position = end + 1;
+            if (lineEnd == start) continue;
+            lineCount++;
+
+            int count = split(buffer, start, lineEnd, fields);
+            String key = count > 0 ? fields[0].trim() : "";
+            String translation = count > 1 ? fields[1].trim() : "";
+            long usage;
+            try {
+                usage = count > 2 && !fields[2].isBlank() ? Long.parseLong(fields[2].trim()) : 0;
+            } catch (NumberFormatException e) {
+                usage = -1;
+            }
+            if (count < 1 || count > fields.length || key.isEmpty() || usage < 0) {
+                rejectedCount++;
+                continue;
+            }
+
+            if (!key.equals(word)) {
+                if (word != null) batch.add(new DictionarySnapshot.Record(word, lookups, List.copyOf(wordTranslations)));
+                if (batch.size() >= BATCH_SIZE) {
+                    dictionary.importBatch(batch);
+                    batch.clear();
+                }
+                word = key;
+                wordTranslations.clear();
+                lookups = 0;
+            }
+            if (!translation.isEmpty()) wordTranslations.add(intern(translation));
+            lookups += usage;
+        }
+        if (word != null) batch.add(new DictionarySnapshot.Record(word, lookups, List.copyOf(wordTranslations)));
+        if (!batch.isEmpty()) dictionary.importBatch(batch);
+        lines.add(lineCount);
+        rejected.add(rejectedCount);
+    }
+
+    private int split(byte[] buffer, int position, int limit, String[] fields) {
+        int count = 0;
+        while (true) {
+            if (count == fields.length) return count + 1;
+            int fieldEnd;
+            if (position < limit && buffer[position] == '"') {
+                int close = closingQuote(buffer, position + 1, limit);
+                if (close >= limit) return -1;
+                fields[count++] = new String(buffer, position + 1, close - position - 1, StandardCharsets.UTF_8).replace("\"\"", "\"");
+                fieldEnd = close + 1;
+                if (fieldEnd < limit && buffer[fieldEnd] != separator) return -1;
+            } else {
+                fieldEnd = position;
+                while (fieldEnd < limit && buffer[fieldEnd] != separator) fieldEnd++;
+                fields[count++] = new String(buffer, position, fieldEnd - position, StandardCharsets.UTF_8);
+            }
+            if (fieldEnd >= limit) return count;
+            position = fieldEnd + 1;
+        }
+    }
+
+    private String intern(String value) {
+        String existing = translations.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    private int recordEnd(byte[] buffer, int position, int limit) {
+        boolean fieldStart = true;
+        while (position < limit) {
+            byte b = buffer[position];
+            if (b == '\n') return position;
+            if (fieldStart && b == '"') {
+                position = closingQuote(buffer, position + 1, limit) + 1;
+                fieldStart = false;
+                continue;
+            }
+            fieldStart = b == separator;
+            position++;
+        }
+        return limit;
+    }
+
+    private int lastRecordEnd(byte[] buffer, int position, int length) {
+        int cut = position;
+        while (true) {
+            int end = recordEnd(buffer, position, length);
+            if (end >= length) return cut;
+            cut = position = end + 1;
+        }
+    }
+
+    private static int closingQuote(byte[] buffer, int position, int limit) {
+        while (position < limit) {
+            if (buffer[position] == '"') {
+                if (position + 1 < limit && buffer[position + 1] == '"') {
+                    position += 2;
+                    continue;
+                }
+                return position;
+            }
+            position++;
+        }
+        return limit;
+    }
+
+    private static boolean hasByteOrderMark(byte[] buffer, int length) {
+        return length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF;
+    }
+
+    private static long estimateLines(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size == 0) return 16;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(size, SAMPLE_SIZE));
+            while (sample.hasRemaining() && channel.read(sample) >= 0) {
+            }
+            int newlines = 0;
+            for (int i = 0; i < sample.position(); i++) {
+                if (sample.get(i) == '\n') newlines++;
+            }
+            return Math.max(16, size * Math.max(1, newlines) / Math.max(1, sample.position()));
+        }
+    }
+
+    public record Report(long lines, long rejected, long nanos) {
+        public double linesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+    }
+}
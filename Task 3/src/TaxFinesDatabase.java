@@ -1,14 +1,80 @@
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.Consumer;
+import db.CachingPersonStore;
+import db.ColumnarPersonStore;
+import db.ConcurrentPersonStore;
+import db.CountingPersonStore;
+import db.Durability;
+import db.DurablePersonStore;
+import db.FineReport;
+import db.MeteredPersonStore;
+import db.PersonRepository;
+import db.PersonImporter;
+import db.PersonQuery;
+import db.PersonStore;
+import db.PersonWriter;
+import metrics.Metrics;
+import metrics.Operation;
 import model.*;
 
 public class TaxFinesDatabase {
-    private static final Map<String, Person> database = new HashMap<>();
-    private static final Map<String, City> cityPool = new HashMap<>();
-    private static int cityIdCounter = 1;
+    private static final String DEFAULT_STORAGE = "tax-fines-data";
+    private static final int TOP_CITIES = 10;
+    private static final int SEARCH_LIMIT = 20;
+    private static final int PAGE_SIZE = 20;
+    private static final int CACHE_SIZE = 10_000;
+    private static PersonStore database;
+    private static DurablePersonStore durable;
+    private static CountingPersonStore statistics;
+    private static CachingPersonStore cache;
     private static final Scanner scanner = new Scanner(System.in);
+    private static final Metrics metrics = Metrics.global();
+    private static final Operation REPORT = metrics.operation("database.statistics");
+    private static final Operation EXPORT = metrics.operation("database.export");
+    private static final Operation IMPORT = metrics.operation("database.import");
+    private static final PersonWriter console = new PersonWriter(Channels.newChannel(System.out));
 
     public static void main(String[] args) {
+        String kind = "hash";
+        Durability durability = Durability.GROUP;
+        Path storage = Path.of(DEFAULT_STORAGE);
+        int cacheSize = CACHE_SIZE;
+        for (String arg : args) {
+            if (arg.equals("--columnar") || arg.equals("--concurrent")) {
+                kind = arg.substring(2);
+            } else if (arg.startsWith("--cache=")) {
+                cacheSize = Integer.parseInt(arg.substring("--cache=".length()));
+            } else if (arg.startsWith("--durability=")) {
+                durability = Durability.valueOf(arg.substring("--durability=".length()).toUpperCase(Locale.ROOT));
+            } else {
+                storage = Path.of(arg);
+            }
+        }
+
+        PersonStore store = createStore(kind);
+        try {
+            durable = DurablePersonStore.open(storage, store, durability);
+            database = durable;
+            System.out.printf("Recovered %d persons and %d logged changes in %d ms.%n",
+                    durable.size(), durable.replayedMutations(), durable.recoveryNanos() / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not open storage " + storage + ": " + e.getMessage());
+            System.out.println("Working in memory, changes will not be saved.");
+            database = createStore(kind);
+        }
+        statistics = new CountingPersonStore(database);
+        database = statistics;
+        if (cacheSize > 0) {
+            cache = new CachingPersonStore(database, cacheSize);
+            database = cache;
+        }
+        database = new MeteredPersonStore(database, metrics);
+
         while (true) {
             System.out.println("\nMenu:");
             System.out.println("1. Print full database");
@@ -19,6 +85,13 @@ public class TaxFinesDatabase {
             System.out.println("6. Add fines to an existing record");
             System.out.println("7. Remove a fine");
             System.out.println("8. Update person information");
+            System.out.println("9. Print data by fine location");
+            System.out.println("10. Print fine statistics");
+            System.out.println("11. Export database to a file");
+            System.out.println("12. Import persons and fines from a file");
+            System.out.println("13. Print persons born in a date range");
+            System.out.println("14. Print operation metrics");
+            System.out.println("15. Search persons by several filters");
             System.out.println("0. Exit");
             System.out.print("Choose an option: ");
 
@@ -40,8 +113,16 @@ public class TaxFinesDatabase {
                 case 6 -> addFines();
                 case 7 -> removeFine();
                 case 8 -> updatePerson();
+                case 9 -> printDataByFineCity();
+                case 10 -> printStatistics();
+                case 11 -> exportDatabase();
+                case 12 -> importDatabase();
+                case 13 -> printDataByBirthDate();
+                case 14 -> printMetrics();
+                case 15 -> searchPersons();
                 case 0 -> {
                     System.out.println("Exiting...");
+                    close();
                     scanner.close();
                     return;
                 }
@@ -50,20 +131,69 @@ public class TaxFinesDatabase {
         }
     }
 
+    private static PersonStore createStore(String kind) {
+        return switch (kind) {
+            case "columnar" -> new ColumnarPersonStore();
+            case "concurrent" -> new ConcurrentPersonStore();
+            default -> new PersonRepository();
+        };
+    }
+
+    private static void close() {
+        if (durable == null) return;
+        try {
+            durable.close();
+        } catch (IOException e) {
+            System.out.println("Could not save the database: " + e.getMessage());
+        }
+    }
 
     private static void printDatabase() {
         if (database.isEmpty()) {
             System.out.println("Database is empty.");
             return;
         }
-        database.values().forEach(System.out::println);
+        String after = null;
+        while (true) {
+            List<Person> page = database.findPage(after, PAGE_SIZE);
+            try {
+                System.out.flush();
+                for (Person person : page) {
+                    console.write(person);
+                }
+                console.flush();
+            } catch (IOException e) {
+                System.out.println("Could not print the database: " + e.getMessage());
+                return;
+            }
+            if (page.size() < PAGE_SIZE) return;
+            after = page.get(page.size() - 1).getId();
+            System.out.print("Press Enter for the next page or q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) return;
+        }
+    }
+
+    private static void exportDatabase() {
+        System.out.print("Enter file path: ");
+        Path file = Path.of(scanner.nextLine().trim());
+        long started = System.nanoTime();
+        try (PersonWriter writer = new PersonWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            for (Person person : database.findAll()) {
+                writer.write(person);
+            }
+            EXPORT.recordSince(started);
+            System.out.printf("Exported %d records in %d ms.%n", writer.records(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not export the database: " + e.getMessage());
+        }
     }
 
     private static void printDataByID() {
         String id = inputId();
         if (id == null) return;
 
-        Person person = database.get(id);
+        Person person = database.findById(id);
         if (person != null) {
             System.out.println(person);
         } else {
@@ -74,35 +204,137 @@ public class TaxFinesDatabase {
     private static void printDataByFineType() {
         System.out.print("Enter fine type: ");
         String type = scanner.nextLine().trim();
-        boolean found = database.values().stream()
-                .filter(p -> p.hasFineType(type))
-                .peek(System.out::println)
-                .count() > 0;
-        if (!found) System.out.println("No data found.");
+        printFound(database.findByFineType(type));
     }
 
     private static void printDataByCity() {
         City city = inputCity();
-        boolean found = database.values().stream()
-                .filter(p -> p.getCity().equals(city))
-                .peek(System.out::println)
-                .count() > 0;
-        if (!found) System.out.println("No data found.");
+        printFound(database.findByCity(city));
+    }
+
+    private static void printDataByFineCity() {
+        City city = inputCity();
+        printFound(database.findByFineCity(city));
+    }
+
+    private static void printDataByBirthDate() {
+        try {
+            System.out.print("Enter the first birth date (dd.mm.yyyy): ");
+            int from = BirthDate.parse(scanner.nextLine().trim());
+            System.out.print("Enter the last birth date (dd.mm.yyyy): ");
+            int to = BirthDate.parse(scanner.nextLine().trim());
+            System.out.print("Only persons with a fine in city (leave empty for any): ");
+            String cityName = scanner.nextLine().trim();
+            printFound(cityName.isEmpty()
+                    ? database.findBornBetween(from, to)
+                    : database.findBornBetweenWithFineIn(from, to, database.city(cityName)));
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private static void searchPersons() {
+        try {
+            PersonQuery query = new PersonQuery();
+            System.out.print("First or last name starts with (leave empty for any): ");
+            query.nameStartsWith(scanner.nextLine().trim());
+            System.out.print("City of residence (leave empty for any): ");
+            String cityName = scanner.nextLine().trim();
+            if (!cityName.isEmpty()) query.livingIn(database.city(cityName));
+            System.out.print("Fine type (leave empty for any): ");
+            String type = scanner.nextLine().trim();
+            System.out.print("Fine city (leave empty for any): ");
+            String fineCityName = scanner.nextLine().trim();
+            if (!type.isEmpty() || !fineCityName.isEmpty()) {
+                query.withFine(type.isEmpty() ? null : type, fineCityName.isEmpty() ? null : database.city(fineCityName));
+            }
+            System.out.print("First birth date (dd.mm.yyyy, leave empty for any): ");
+            String from = scanner.nextLine().trim();
+            System.out.print("Last birth date (dd.mm.yyyy, leave empty for any): ");
+            String to = scanner.nextLine().trim();
+            query.bornBetween(from.isEmpty() ? Integer.MIN_VALUE : BirthDate.parse(from), to.isEmpty() ? Integer.MAX_VALUE : BirthDate.parse(to));
+            long started = System.nanoTime();
+            long matches = query.count(database);
+            long nanos = System.nanoTime() - started;
+            System.out.printf("%d matching persons (scanned in %.1f ms)%n", matches, nanos / 1e6);
+            if (matches > 0) {
+                query.find(database, SEARCH_LIMIT).forEach(System.out::println);
+                if (matches > SEARCH_LIMIT) System.out.println("... and " + (matches - SEARCH_LIMIT) + " more");
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    private static void importDatabase() {
+        System.out.print("Enter the path of a .csv, .tsv or .ndjson file: ");
+        Path file = Path.of(scanner.nextLine().trim());
+        try {
+            long started = System.nanoTime();
+            PersonImporter.Report report = new PersonImporter(database, Runtime.getRuntime().availableProcessors()).importFile(file);
+            IMPORT.recordSince(started);
+            System.out.printf("Imported %d rows (%d rejected): %d new persons, %d fines in %.2f s, %.0f rows/sec%n",
+                    report.rows(), report.rejected(), report.persons(), report.fines(), report.nanos() / 1e9, report.rowsPerSecond());
+            report.rejectedSamples().forEach(sample -> System.out.println("  rejected " + sample));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not import " + file + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void printStatistics() {
+        long started = System.nanoTime();
+        FineReport report = statistics.report();
+        REPORT.recordSince(started);
+        System.out.printf("Persons: %d, fines: %d%n", report.persons(), report.fines());
+        if (report.fines() > 0) {
+            System.out.println("Fines by type and city:");
+            report.finesByTypeAndCity().forEach((type, cities) -> System.out.println("  " + type + ": " + cities));
+            System.out.println("Top cities by fines:");
+            List<Map.Entry<String, Long>> top = report.topCities(TOP_CITIES);
+            for (int i = 0; i < top.size(); i++) {
+                System.out.printf("  %d. %s - %d%n", i + 1, top.get(i).getKey(), top.get(i).getValue());
+            }
+        }
+        if (!report.personsByBirthBracket().isEmpty()) {
+            System.out.println("Birth years (persons / fines):");
+            report.personsByBirthBracket().forEach((bracket, persons) -> System.out.printf("  %d-%d: %d / %d%n",
+                    bracket, bracket + report.bracketYears() - 1, persons, report.finesByBirthBracket().get(bracket)));
+        }
+        if (cache != null) {
+            CachingPersonStore.Stats stats = cache.stats();
+            System.out.printf("Record cache: %d/%d entries, %d hits, %d misses (%.1f%% hit rate), %d evictions%n",
+                    stats.size(), stats.capacity(), stats.hits(), stats.misses(), stats.hitRate() * 100, stats.evictions());
+        }
+    }
+
+    private static void printMetrics() {
+        try {
+            metrics.writeText(System.out);
+        } catch (IOException e) {
+            System.out.println("Could not print metrics: " + e.getMessage());
+        }
+    }
+
+    private static void printFound(List<Person> found) {
+        found.forEach(System.out::println);
+        if (found.isEmpty()) System.out.println("No data found.");
     }
 
     private static void addPerson() {
         String id = inputId();
-        if (id == null || database.containsKey(id)) {
+        if (id == null || database.contains(id)) {
             System.out.println("Invalid or existing ID");
             return;
         }
 
         String firstName = inputName("first");
         String lastName = inputName("last");
-        String birthDate = inputBirthDate();
+        int birthDay = inputBirthDate();
         City city = inputCity();
 
-        database.put(id, new Person(id, firstName, lastName, birthDate, city));
+        database.add(new Person(id, firstName, lastName, birthDay, city));
         System.out.println("Person added successfully!");
     }
 
@@ -110,7 +342,7 @@ public class TaxFinesDatabase {
         String id = inputId();
         if (id == null) return;
 
-        Person person = database.get(id);
+        Person person = database.findById(id);
         if (person == null) {
             System.out.println("Person not found.");
             return;
@@ -119,7 +351,7 @@ public class TaxFinesDatabase {
         System.out.print("Enter fine type: ");
         String type = scanner.nextLine().trim();
         City city = inputCity();
-        person.addFine(new Fine(type, city));
+        database.addFine(person, new Fine(type, city));
         System.out.println("Fine added successfully!");
     }
 
@@ -127,7 +359,7 @@ public class TaxFinesDatabase {
         String id = inputId();
         if (id == null) return;
 
-        Person person = database.get(id);
+        Person person = database.findById(id);
         if (person == null) {
             System.out.println("Person not found.");
             return;
@@ -136,7 +368,7 @@ public class TaxFinesDatabase {
         System.out.print("Enter fine type to remove: ");
         String type = scanner.nextLine().trim();
         City city = inputCity();
-        if (person.removeFines(type, city)) {
+        if (database.removeFines(person, type, city)) {
             System.out.println("Fine(s) removed successfully!");
         } else {
             System.out.println("Fine not found.");
@@ -147,20 +379,22 @@ public class TaxFinesDatabase {
         String id = inputId();
         if (id == null) return;
 
-        Person person = database.get(id);
+        Person person = database.findById(id);
         if (person == null) {
             System.out.println("Person not found.");
             return;
         }
 
-        updateField("first name", person::setFirstName);
-        updateField("last name", person::setLastName);
-        updateBirthDate(person);
-        updateCity(person);
+        Person changes = new Person(person);
+        updateField("first name", changes::setFirstName);
+        updateField("last name", changes::setLastName);
+        updateBirthDate(changes);
+        updateCity(changes);
+        database.update(changes);
 
         System.out.print("Replace all fines? (yes/no): ");
         if (scanner.nextLine().trim().equalsIgnoreCase("yes")) {
-            person.getFines().clear();
+            database.clearFines(person);
             addNewFines(person);
         }
         System.out.println("Person updated successfully!");
@@ -181,8 +415,7 @@ public class TaxFinesDatabase {
         while (true) {
             System.out.print("Enter city name: ");
             String cityName = scanner.nextLine().trim();
-            if (cityName.matches("[a-zA-Z-]+")) return cityPool.computeIfAbsent(cityName.toLowerCase(), k -> 
-                new City(cityIdCounter++, cityName));
+            if (cityName.matches("[a-zA-Z-]+")) return database.city(cityName);
             System.out.println("Invalid city name. Use letters and hyphens only.");
         }
     }
@@ -196,12 +429,14 @@ public class TaxFinesDatabase {
         }
     }
 
-    private static String inputBirthDate() {
+    private static int inputBirthDate() {
         while (true) {
             System.out.print("Enter birth date (dd.mm.yyyy): ");
-            String date = scanner.nextLine().trim();
-            if (date.matches("\\d{2}\\.\\d{2}\\.\\d{4}")) return date;
-            System.out.println("Invalid date format. Use dd.mm.yyyy.");
+            try {
+                return BirthDate.parseBirthDate(scanner.nextLine().trim());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Invalid birth date. " + e.getMessage());
+            }
         }
     }
 
@@ -214,8 +449,11 @@ public class TaxFinesDatabase {
     private static void updateBirthDate(Person person) {
         System.out.print("Enter new birth date (dd.mm.yyyy) or empty: ");
         String date = scanner.nextLine().trim();
-        if (!date.isEmpty() && date.matches("\\d{2}\\.\\d{2}\\.\\d{4}")) {
+        if (date.isEmpty()) return;
+        try {
             person.setBirthDate(date);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid birth date, keeping the current one. " + e.getMessage());
         }
     }
 
@@ -223,9 +461,7 @@ public class TaxFinesDatabase {
         System.out.print("Enter new city (leave empty to keep current): ");
         String cityName = scanner.nextLine().trim();
         if (!cityName.isEmpty()) {
-            person.setCity(cityPool.computeIfAbsent(cityName.toLowerCase(), k -> 
-                new City(cityIdCounter++, cityName)
-            ));
+            person.setCity(database.city(cityName));
         }
     }
 
@@ -238,10 +474,10 @@ public class TaxFinesDatabase {
                 System.out.print("Type: ");
                 String type = scanner.nextLine().trim();
                 City city = inputCity();
-                person.addFine(new Fine(type, city));
+                database.addFine(person, new Fine(type, city));
             }
         } catch (NumberFormatException e) {
             System.out.println("Invalid number format.");
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import model.*;
+
+public final class CachingPersonStore implements PersonStore {
+    private static final int MAX_STRIPES = 64;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+
+    private final PersonStore store;
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingPersonStore(PersonStore store, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+        this.store = store;
+        this.capacity = capacity;
+        int count = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4)));
+        while (count > 1 && capacity / count < MIN_STRIPE_CAPACITY) {
+            count >>= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    public Stats stats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, capacity);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Person findById(String id) {
+        Stripe stripe = stripe(id);
+        Person person = stripe.get(id);
+        if (person != null) {
+            hits.increment();
+            return person;
+        }
+        misses.increment();
+        long loadedAt = stripe.generation();
+        person = store.findById(id);
+        if (person != null) stripe.admit(id, person, loadedAt);
+        return person;
+    }
+
+    @Override
+    public Collection<Person> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        return store.findBornBetween(fromDay, toDay);
+    }
+
+    @Override
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        return store.findBornBetweenWithFineIn(fromDay, toDay, city);
+    }
+
+    @Override
+    public long query(PersonQuery query, Predicate<? super Person> sink) {
+        return store.query(query, sink);
+    }
+
+    @Override
+    public List<Person> findPage(String afterId, int limit) {
+        return store.findPage(afterId, limit);
+    }
+
+    @Override
+    public boolean add(Person person) {
+        boolean added = store.add(person);
+        invalidate(person.getId());
+        return added;
+    }
+
+    @Override
+    public int importBatch(List<Person> persons) {
+        int added = store.importBatch(persons);
+        for (Person person : persons) {
+            invalidate(person.getId());
+        }
+        return added;
+    }
+
+    @Override
+    public void update(Person person) {
+        store.update(person);
+        invalidate(person.getId());
+    }
+
+    @Override
+    public void addFine(Person person, Fine fine) {
+        store.addFine(person, fine);
+        invalidate(person.getId());
+    }
+
+    @Override
+    public boolean removeFines(Person person, String type, City city) {
+        boolean removed = store.removeFines(person, type, city);
+        invalidate(person.getId());
+        return removed;
+    }
+
+    @Override
+    public void clearFines(Person person) {
+        store.clearFines(person);
+        invalidate(person.getId());
+    }
+
+    @Override
+    public void moveTo(Person person, City city) {
+        store.moveTo(person, city);
+        invalidate(person.getId());
+    }
+
+    @Override
+    public List<Person> findByFineType(String type) {
+        return store.findByFineType(type);
+    }
+
+    @Override
+    public List<Person> findByCity(City city) {
+        return store.findByCity(city);
+    }
+
+    @Override
+    public List<Person> findByFineCity(City city) {
+        return store.findByFineCity(city);
+    }
+
+    @Override
+    public City city(String name) {
+        return store.city(name);
+    }
+
+    private void invalidate(String id) {
+        stripe(id).invalidate(id);
+    }
+
+    private Stripe stripe(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+        private final int capacity;
+        private final int probationCapacity;
+        private final LinkedHashMap<String, Person> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Person> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        private long generation;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.probationCapacity = Math.max(1, capacity / 5);
+        }
+
+        synchronized Person get(String id) {
+            Person person = protectedSegment.get(id);
+            if (person == null) {
+                person = probation.remove(id);
+                if (person != null) promote(id, person);
+            }
+            return person;
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized int size() {
+            return probation.size() + protectedSegment.size();
+        }
+
+        synchronized void admit(String id, Person person, long loadedAt) {
+            if (generation != loadedAt || protectedSegment.containsKey(id)) return;
+            probation.put(id, person);
+            trimProbation();
+        }
+
+        synchronized void invalidate(String id) {
+            generation++;
+            if (probation.remove(id) == null) protectedSegment.remove(id);
+        }
+
+        private void promote(String id, Person person) {
+            protectedSegment.put(id, person);
+            if (protectedSegment.size() > capacity - probationCapacity) {
+                Iterator<Map.Entry<String, Person>> eldest = protectedSegment.entrySet().iterator();
+                Map.Entry<String, Person> demoted = eldest.next();
+                eldest.remove();
+                probation.put(demoted.getKey(), demoted.getValue());
+                trimProbation();
+            }
+        }
+
+        private void trimProbation() {
+            Iterator<Person> eldest = probation.values().iterator();
+            while (probation.size() + protectedSegment.size() > capacity || probation.size() > probationCapacity) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size, int capacity) {
+        public double hitRate() {
+            return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        }
+    }
+}
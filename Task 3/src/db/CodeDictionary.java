@@ -0,0 +1,30 @@
+package db;
+
+import java.util.*;
+
+final class CodeDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        code = values.size();
+        values.add(value);
+        codes.put(value, code);
+        return code;
+    }
+
+    int find(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    String decode(int code) {
+        return values.get(code);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
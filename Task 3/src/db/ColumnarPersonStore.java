@@ -0,0 +1,501 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import model.*;
+
+public class ColumnarPersonStore implements PersonStore {
+    private static final int MIN_FINE_GARBAGE = 1 << 16;
+
+    private final LongIntMap rows;
+    private final CodeDictionary names = new CodeDictionary();
+    private final Map<String, City> cityPool = new HashMap<>();
+    private final List<City> citiesById = new ArrayList<>();
+    private final List<RowSet> byFineType = new ArrayList<>();
+    private final List<RowSet> byCity = new ArrayList<>();
+    private final List<RowSet> byFineCity = new ArrayList<>();
+    private final NavigableMap<Integer, RowSet> byBirthDay = new TreeMap<>();
+    private FineType[] typesByCode = new FineType[16];
+
+    private long[] ids;
+    private int[] firstNames;
+    private int[] lastNames;
+    private int[] birthDays;
+    private int[] cities;
+    private int[] fineStart;
+    private int[] fineCount;
+    private int size;
+
+    private int[] fineTypes;
+    private int[] fineCities;
+    private int fineSize;
+    private int fineGarbage;
+
+    public ColumnarPersonStore() {
+        this(1024);
+    }
+
+    public ColumnarPersonStore(int expectedPersons) {
+        int capacity = Math.max(16, expectedPersons);
+        rows = new LongIntMap(capacity);
+        ids = new long[capacity];
+        firstNames = new int[capacity];
+        lastNames = new int[capacity];
+        birthDays = new int[capacity];
+        cities = new int[capacity];
+        fineStart = new int[capacity];
+        fineCount = new int[capacity];
+        fineTypes = new int[capacity];
+        fineCities = new int[capacity];
+        citiesById.add(null);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return rowOf(id) >= 0;
+    }
+
+    @Override
+    public Person findById(String id) {
+        int row = rowOf(id);
+        return row < 0 ? null : view(row);
+    }
+
+    @Override
+    public Collection<Person> findAll() {
+        return new AbstractList<>() {
+            @Override
+            public Person get(int index) {
+                Objects.checkIndex(index, size);
+                return view(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public List<Person> findPage(String afterId, int limit) {
+        long after = afterId == null ? -1 : parseIdOrNegative(afterId);
+        if (afterId != null && after < 0) return PersonStore.super.findPage(afterId, limit);
+        if (limit <= 0) return List.of();
+        PriorityQueue<Integer> page = new PriorityQueue<>(limit + 1, (a, b) -> Long.compare(ids[b], ids[a]));
+        for (int row = 0; row < size; row++) {
+            long id = ids[row];
+            if (id <= after) continue;
+            if (page.size() < limit) {
+                page.add(row);
+            } else if (id < ids[page.peek()]) {
+                page.poll();
+                page.add(row);
+            }
+        }
+        Person[] sorted = new Person[page.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = view(page.poll());
+        }
+        return Arrays.asList(sorted);
+    }
+
+    @Override
+    public boolean add(Person person) {
+        long id = parseId(person.getId());
+        if (!rows.putIfAbsent(id, size)) return false;
+        if (size == ids.length) growRows();
+        int row = size++;
+        ids[row] = id;
+        firstNames[row] = names.encode(person.getFirstName());
+        lastNames[row] = names.encode(person.getLastName());
+        birthDays[row] = person.getBirthDay();
+        cities[row] = person.getCity().getId();
+        index(byCity, cities[row], row);
+        byBirthDay.computeIfAbsent(birthDays[row], k -> new RowSet()).add(row);
+
+        List<Fine> fines = person.getFines();
+        ensureFineCapacity(fineSize + fines.size());
+        fineStart[row] = fineSize;
+        fineCount[row] = fines.size();
+        for (Fine fine : fines) {
+            fineTypes[fineSize] = encodeType(fine.getFineType());
+            fineCities[fineSize] = fine.getCity().getId();
+            indexFine(row, fineTypes[fineSize], fineCities[fineSize]);
+            fineSize++;
+        }
+        return true;
+    }
+
+    @Override
+    public void update(Person person) {
+        int row = rowOf(person.getId());
+        if (row < 0) return;
+        firstNames[row] = names.encode(person.getFirstName());
+        lastNames[row] = names.encode(person.getLastName());
+        redate(row, person.getBirthDay());
+        relocate(row, person.getCity().getId());
+    }
+
+    @Override
+    public void addFine(Person person, Fine fine) {
+        person.addFine(fine);
+        int row = rowOf(person.getId());
+        if (row < 0) return;
+        int start = fineStart[row];
+        int count = fineCount[row];
+        if (start + count != fineSize) {
+            ensureFineCapacity(fineSize + count + 1);
+            System.arraycopy(fineTypes, start, fineTypes, fineSize, count);
+            System.arraycopy(fineCities, start, fineCities, fineSize, count);
+            fineGarbage += count;
+            start = fineSize;
+            fineStart[row] = start;
+            fineSize += count;
+        } else {
+            ensureFineCapacity(fineSize + 1);
+        }
+        int type = encodeType(fine.getFineType());
+        int city = fine.getCity().getId();
+        fineTypes[fineSize] = type;
+        fineCities[fineSize] = city;
+        fineSize++;
+        fineCount[row] = count + 1;
+        indexFine(row, type, city);
+        compactFinesIfSparse();
+    }
+
+    @Override
+    public boolean removeFines(Person person, String type, City city) {
+        person.removeFines(type, city);
+        int row = rowOf(person.getId());
+        int key = FineType.keyOf(type);
+        if (row < 0 || key < 0) return false;
+
+        int start = fineStart[row];
+        int end = start + fineCount[row];
+        int kept = start;
+        boolean typeLeft = false;
+        boolean cityLeft = false;
+        for (int f = start; f < end; f++) {
+            if (typesByCode[fineTypes[f]].key() == key && fineCities[f] == city.getId()) continue;
+            typeLeft |= typesByCode[fineTypes[f]].key() == key;
+            cityLeft |= fineCities[f] == city.getId();
+            fineTypes[kept] = fineTypes[f];
+            fineCities[kept] = fineCities[f];
+            kept++;
+        }
+        if (kept == end) return false;
+        releaseFines(row, end - kept);
+        if (!typeLeft) unindex(byFineType, key, row);
+        if (!cityLeft) unindex(byFineCity, city.getId(), row);
+        return true;
+    }
+
+    @Override
+    public void clearFines(Person person) {
+        person.clearFines();
+        int row = rowOf(person.getId());
+        if (row < 0) return;
+        int start = fineStart[row];
+        for (int f = start; f < start + fineCount[row]; f++) {
+            unindex(byFineType, typesByCode[fineTypes[f]].key(), row);
+            unindex(byFineCity, fineCities[f], row);
+        }
+        releaseFines(row, fineCount[row]);
+    }
+
+    @Override
+    public void moveTo(Person person, City city) {
+        person.setCity(city);
+        int row = rowOf(person.getId());
+        if (row >= 0) relocate(row, city.getId());
+    }
+
+    @Override
+    public long query(PersonQuery query, Predicate<? super Person> sink) {
+        if (query.matchesNothing()) return 0;
+        boolean[] nameMatches = null;
+        if (query.filtersNames()) {
+            nameMatches = new boolean[names.size()];
+            for (int code = 0; code < nameMatches.length; code++) {
+                nameMatches[code] = query.nameMatches(names.decode(code));
+            }
+        }
+        PersonQuery.Matches matches = new PersonQuery.Matches(sink);
+        query.pool().invoke(new RowScan(query, nameMatches, matches, 0, size));
+        return matches.delivered();
+    }
+
+    @Override
+    public List<Person> findByFineType(String type) {
+        int key = FineType.keyOf(type);
+        return key < 0 ? List.of() : resolve(byFineType, key);
+    }
+
+    @Override
+    public List<Person> findByCity(City city) {
+        return resolve(byCity, city.getId());
+    }
+
+    @Override
+    public List<Person> findByFineCity(City city) {
+        return resolve(byFineCity, city.getId());
+    }
+
+    @Override
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) return List.of();
+        List<Person> found = new ArrayList<>();
+        for (RowSet range : byBirthDay.subMap(fromDay, true, toDay, true).values()) {
+            range.forEach(row -> found.add(view(row)));
+        }
+        return found;
+    }
+
+    @Override
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        int key = city.getId();
+        if (key >= byFineCity.size() || byFineCity.get(key) == null || fromDay > toDay) return List.of();
+        RowSet fined = byFineCity.get(key);
+        Collection<RowSet> range = byBirthDay.subMap(fromDay, true, toDay, true).values();
+        List<Person> found = new ArrayList<>();
+        long inRange = 0;
+        for (RowSet born : range) {
+            inRange += born.size();
+            if (inRange >= fined.size()) {
+                fined.forEach(row -> {
+                    if (birthDays[row] >= fromDay && birthDays[row] <= toDay) found.add(view(row));
+                });
+                return found;
+            }
+        }
+        for (RowSet born : range) {
+            born.forEach(row -> {
+                if (fined.contains(row)) found.add(view(row));
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public City city(String name) {
+        return cityPool.computeIfAbsent(name.toLowerCase(), k -> {
+            City city = new City(citiesById.size(), name);
+            citiesById.add(city);
+            return city;
+        });
+    }
+
+    private Person view(int row) {
+        Person person = new Person(formatId(ids[row]), names.decode(firstNames[row]), names.decode(lastNames[row]),
+                birthDays[row], citiesById.get(cities[row]));
+        int start = fineStart[row];
+        for (int f = start; f < start + fineCount[row]; f++) {
+            person.addFine(new Fine(typesByCode[fineTypes[f]], citiesById.get(fineCities[f])));
+        }
+        return person;
+    }
+
+    private int rowOf(String id) {
+        long key = parseIdOrNegative(id);
+        return key < 0 ? -1 : rows.get(key);
+    }
+
+    private void relocate(int row, int city) {
+        if (cities[row] == city) return;
+        unindex(byCity, cities[row], row);
+        cities[row] = city;
+        index(byCity, city, row);
+    }
+
+    private void redate(int row, int birthDay) {
+        if (birthDays[row] == birthDay) return;
+        RowSet previous = byBirthDay.get(birthDays[row]);
+        if (previous.remove(row) && previous.isEmpty()) byBirthDay.remove(birthDays[row]);
+        birthDays[row] = birthDay;
+        byBirthDay.computeIfAbsent(birthDay, k -> new RowSet()).add(row);
+    }
+
+    private void indexFine(int row, int type, int city) {
+        index(byFineType, typesByCode[type].key(), row);
+        index(byFineCity, city, row);
+    }
+
+    private int encodeType(FineType type) {
+        int code = type.code();
+        if (code >= typesByCode.length) typesByCode = Arrays.copyOf(typesByCode, Math.max(code + 1, typesByCode.length * 2));
+        typesByCode[code] = type;
+        return code;
+    }
+
+    private void releaseFines(int row, int released) {
+        if (fineStart[row] + fineCount[row] == fineSize) {
+            fineSize -= released;
+        } else {
+            fineGarbage += released;
+        }
+        fineCount[row] -= released;
+    }
+
+    private void ensureFineCapacity(int required) {
+        if (required <= fineTypes.length) return;
+        int capacity = Math.max(required, fineTypes.length + (fineTypes.length >> 1));
+        fineTypes = Arrays.copyOf(fineTypes, capacity);
+        fineCities = Arrays.copyOf(fineCities, capacity);
+    }
+
+    private void compactFinesIfSparse() {
+        if (fineGarbage < MIN_FINE_GARBAGE || fineGarbage * 2 < fineSize) return;
+        int live = fineSize - fineGarbage;
+        int[] types = new int[Math.max(16, live + (live >> 1))];
+        int[] cities = new int[types.length];
+        int next = 0;
+        for (int row = 0; row < size; row++) {
+            int count = fineCount[row];
+            System.arraycopy(fineTypes, fineStart[row], types, next, count);
+            System.arraycopy(fineCities, fineStart[row], cities, next, count);
+            fineStart[row] = next;
+            next += count;
+        }
+        fineTypes = types;
+        fineCities = cities;
+        fineSize = next;
+        fineGarbage = 0;
+    }
+
+    private void growRows() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        firstNames = Arrays.copyOf(firstNames, capacity);
+        lastNames = Arrays.copyOf(lastNames, capacity);
+        birthDays = Arrays.copyOf(birthDays, capacity);
+        cities = Arrays.copyOf(cities, capacity);
+        fineStart = Arrays.copyOf(fineStart, capacity);
+        fineCount = Arrays.copyOf(fineCount, capacity);
+    }
+
+    private List<Person> resolve(List<RowSet> index, int key) {
+        if (key >= index.size() || index.get(key) == null) return List.of();
+        RowSet matches = index.get(key);
+        List<Person> found = new ArrayList<>(matches.size());
+        matches.forEach(row -> found.add(view(row)));
+        return found;
+    }
+
+    private static void index(List<RowSet> index, int key, int row) {
+        while (index.size() <= key) index.add(null);
+        RowSet set = index.get(key);
+        if (set == null) index.set(key, set = new RowSet());
+        set.add(row);
+    }
+
+    private static void unindex(List<RowSet> index, int key, int row) {
+        if (key >= index.size() || index.get(key) == null) return;
+        RowSet set = index.get(key);
+        if (set.remove(row) && set.isEmpty()) index.set(key, null);
+    }
+
+    static long parseId(String id) {
+        long value = parseIdOrNegative(id);
+        if (value < 0) throw new IllegalArgumentException("ID must be exactly 10 digits: " + id);
+        return value;
+    }
+
+    private static long parseIdOrNegative(String id) {
+        if (id.length() != 10) return -1;
+        long value = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    static String formatId(long id) {
+        char[] digits = new char[10];
+        for (int i = 9; i >= 0; i--) {
+            digits[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(digits);
+    }
+
+    private final class RowScan extends RecursiveAction {
+        private static final int BLOCK = 1024;
+
+        private final PersonQuery query;
+        private final boolean[] nameMatches;
+        private final PersonQuery.Matches matches;
+        private final int from;
+        private final int to;
+
+        RowScan(PersonQuery query, boolean[] nameMatches, PersonQuery.Matches matches, int from, int to) {
+            this.query = query;
+            this.nameMatches = nameMatches;
+            this.matches = matches;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PersonQuery.LEAF_SIZE) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowScan(query, nameMatches, matches, from, middle), new RowScan(query, nameMatches, matches, middle, to));
+                return;
+            }
+            int fromDay = query.fromDay();
+            int toDay = query.toDay();
+            int city = query.city() == null ? -1 : query.city().getId();
+            boolean fines = query.filtersFines();
+            int typeKey = query.fineTypeKey();
+            int fineCity = query.fineCity() == null ? -1 : query.fineCity().getId();
+            int[] selected = new int[BLOCK];
+            for (int block = from; block < to && !matches.stopped(); block += BLOCK) {
+                int end = Math.min(to, block + BLOCK);
+                int candidates = 0;
+                for (int row = block; row < end; row++) {
+                    int day = birthDays[row];
+                    selected[candidates] = row;
+                    candidates += day >= fromDay & day <= toDay & (city < 0 | cities[row] == city) ? 1 : 0;
+                }
+                long counted = 0;
+                for (int i = 0; i < candidates; i++) {
+                    int row = selected[i];
+                    if (fines && !hasFine(row, typeKey, fineCity)) continue;
+                    if (nameMatches != null && !nameMatches[firstNames[row]] && !nameMatches[lastNames[row]]) continue;
+                    if (matches.counting()) {
+                        counted++;
+                    } else {
+                        matches.deliver(view(row));
+                        if (matches.stopped()) break;
+                    }
+                }
+                matches.count(counted);
+            }
+        }
+
+        private boolean hasFine(int row, int typeKey, int fineCity) {
+            int start = fineStart[row];
+            for (int f = start; f < start + fineCount[row]; f++) {
+                if (typeKey >= 0 && typesByCode[fineTypes[f]].key() != typeKey) continue;
+                if (fineCity >= 0 && fineCities[f] != fineCity) continue;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import model.*;
+
+public class ConcurrentPersonStore implements PersonStore {
+    private static final int STRIPES = 256;
+
+    private final ConcurrentMap<String, Person> database = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, City> cityPool = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<String>> byFineType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<String>> byCity = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Set<String>> byFineCity = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Integer, Set<String>> byBirthDay = new ConcurrentSkipListMap<>();
+    private final AtomicInteger cityIdCounter = new AtomicInteger(1);
+    private final Object[] stripes = new Object[STRIPES];
+
+    public ConcurrentPersonStore() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return database.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return database.size();
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return database.containsKey(id);
+    }
+
+    @Override
+    public Person findById(String id) {
+        Person person = database.get(id);
+        return person == null ? null : new Person(person);
+    }
+
+    @Override
+    public Collection<Person> findAll() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Person> iterator() {
+                Iterator<Person> persons = database.values().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return persons.hasNext();
+                    }
+
+                    @Override
+                    public Person next() {
+                        return new Person(persons.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return database.size();
+            }
+        };
+    }
+
+    @Override
+    public List<Person> findPage(String afterId, int limit) {
+        if (limit <= 0) return List.of();
+        List<Person> page = PersonStore.firstAfter(database.values(), afterId, limit);
+        page.replaceAll(Person::new);
+        return page;
+    }
+
+    @Override
+    public boolean add(Person person) {
+        Person stored = new Person(person);
+        synchronized (stripe(person.getId())) {
+            if (database.containsKey(person.getId())) return false;
+            publish(person.getId(), null, stored);
+        }
+        return true;
+    }
+
+    @Override
+    public void update(Person person) {
+        mutate(person.getId(), stored -> {
+            stored.setFirstName(person.getFirstName());
+            stored.setLastName(person.getLastName());
+            stored.setBirthDay(person.getBirthDay());
+            stored.setCity(person.getCity());
+            return stored;
+        });
+    }
+
+    @Override
+    public void addFine(Person person, Fine fine) {
+        person.addFine(fine);
+        mutate(person.getId(), stored -> {
+            stored.addFine(fine);
+            return stored;
+        });
+    }
+
+    @Override
+    public boolean removeFines(Person person, String type, City city) {
+        person.removeFines(type, city);
+        return mutate(person.getId(), stored -> stored.removeFines(type, city) ? stored : null) != null;
+    }
+
+    @Override
+    public void clearFines(Person person) {
+        person.clearFines();
+        mutate(person.getId(), stored -> {
+            if (stored.getFines().isEmpty()) return null;
+            stored.clearFines();
+            return stored;
+        });
+    }
+
+    @Override
+    public void moveTo(Person person, City city) {
+        person.setCity(city);
+        mutate(person.getId(), stored -> {
+            stored.setCity(city);
+            return stored;
+        });
+    }
+
+    @Override
+    public List<Person> findByFineType(String type) {
+        int key = FineType.keyOf(type);
+        return resolve(byFineType.get(key), person -> fineTypes(person).contains(key));
+    }
+
+    @Override
+    public List<Person> findByCity(City city) {
+        return resolve(byCity.get(city.getId()), person -> person.getCity().equals(city));
+    }
+
+    @Override
+    public List<Person> findByFineCity(City city) {
+        return resolve(byFineCity.get(city.getId()), person -> fineCities(person).contains(city.getId()));
+    }
+
+    @Override
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) return List.of();
+        List<Person> found = new ArrayList<>();
+        for (Set<String> ids : byBirthDay.subMap(fromDay, true, toDay, true).values()) {
+            found.addAll(resolve(ids, person -> person.getBirthDay() >= fromDay && person.getBirthDay() <= toDay));
+        }
+        return found;
+    }
+
+    @Override
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        Set<String> fined = byFineCity.get(city.getId());
+        if (fined == null || fromDay > toDay) return List.of();
+        Predicate<Person> matches = person -> person.getBirthDay() >= fromDay && person.getBirthDay() <= toDay
+                && fineCities(person).contains(city.getId());
+        Collection<Set<String>> range = byBirthDay.subMap(fromDay, true, toDay, true).values();
+        long inRange = 0;
+        for (Set<String> ids : range) {
+            inRange += ids.size();
+            if (inRange >= fined.size()) return resolve(fined, matches);
+        }
+        List<Person> found = new ArrayList<>();
+        for (Set<String> ids : range) {
+            for (String id : ids) {
+                if (!fined.contains(id)) continue;
+                Person person = database.get(id);
+                if (person != null && matches.test(person)) found.add(new Person(person));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public City city(String name) {
+        return cityPool.computeIfAbsent(name.toLowerCase(), k -> new City(cityIdCounter.getAndIncrement(), name));
+    }
+
+    private Person mutate(String id, UnaryOperator<Person> change) {
+        synchronized (stripe(id)) {
+            Person current = database.get(id);
+            if (current == null) return null;
+            Person updated = change.apply(new Person(current));
+            if (updated != null) publish(id, current, updated);
+            return updated;
+        }
+    }
+
+    private void publish(String id, Person before, Person after) {
+        Set<Integer> typesBefore = before == null ? Set.of() : fineTypes(before);
+        Set<Integer> typesAfter = fineTypes(after);
+        Set<Integer> citiesBefore = before == null ? Set.of() : fineCities(before);
+        Set<Integer> citiesAfter = fineCities(after);
+        boolean moved = before == null || !before.getCity().equals(after.getCity());
+        boolean birthChanged = before == null || before.getBirthDay() != after.getBirthDay();
+
+        if (moved) index(byCity, after.getCity().getId(), id);
+        if (birthChanged) index(byBirthDay, after.getBirthDay(), id);
+        for (Integer type : typesAfter) {
+            if (!typesBefore.contains(type)) index(byFineType, type, id);
+        }
+        for (Integer city : citiesAfter) {
+            if (!citiesBefore.contains(city)) index(byFineCity, city, id);
+        }
+        database.put(id, after);
+        if (moved && before != null) unindex(byCity, before.getCity().getId(), id);
+        if (birthChanged && before != null) unindex(byBirthDay, before.getBirthDay(), id);
+        for (Integer type : typesBefore) {
+            if (!typesAfter.contains(type)) unindex(byFineType, type, id);
+        }
+        for (Integer city : citiesBefore) {
+            if (!citiesAfter.contains(city)) unindex(byFineCity, city, id);
+        }
+    }
+
+    private List<Person> resolve(Set<String> ids, Predicate<Person> matches) {
+        if (ids == null) return List.of();
+        List<Person> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Person person = database.get(id);
+            if (person != null && matches.test(person)) found.add(new Person(person));
+        }
+        return found;
+    }
+
+    private Object stripe(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static Set<Integer> fineTypes(Person person) {
+        Set<Integer> types = new HashSet<>();
+        for (Fine fine : person.getFines()) {
+            types.add(fine.getFineType().key());
+        }
+        return types;
+    }
+
+    private static Set<Integer> fineCities(Person person) {
+        Set<Integer> cities = new HashSet<>();
+        for (Fine fine : person.getFines()) {
+            cities.add(fine.getCity().getId());
+        }
+        return cities;
+    }
+
+    private static <K> void index(ConcurrentMap<K, Set<String>> index, K key, String id) {
+        index.compute(key, (k, ids) -> {
+            if (ids == null) ids = ConcurrentHashMap.newKeySet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private static <K> void unindex(ConcurrentMap<K, Set<String>> index, K key, String id) {
+        index.computeIfPresent(key, (k, ids) -> ids.remove(id) && ids.isEmpty() ? null : ids);
+    }
+}
@@ -0,0 +1,238 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import model.*;
+
+public final class CountingPersonStore implements PersonStore {
+    private static final int STRIPES = 64;
+
+    private final PersonStore store;
+    private final FineCounters counters;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    public CountingPersonStore(PersonStore store) {
+        this.store = store;
+        this.counters = new FineCounters(FineAggregator.tally(store, ForkJoinPool.commonPool()));
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public FineReport report() {
+        return counters.report();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Person findById(String id) {
+        return store.findById(id);
+    }
+
+    @Override
+    public Collection<Person> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        return store.findBornBetween(fromDay, toDay);
+    }
+
+    @Override
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        return store.findBornBetweenWithFineIn(fromDay, toDay, city);
+    }
+
+    @Override
+    public long query(PersonQuery query, Predicate<? super Person> sink) {
+        return store.query(query, sink);
+    }
+
+    @Override
+    public List<Person> findPage(String afterId, int limit) {
+        return store.findPage(afterId, limit);
+    }
+
+    @Override
+    public boolean add(Person person) {
+        ReentrantLock lock = stripe(person.getId());
+        lock.lock();
+        try {
+            if (!store.add(person)) return false;
+            counters.addPerson(person, 1);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int importBatch(List<Person> persons) {
+        for (ReentrantLock lock : stripes) {
+            lock.lock();
+        }
+        try {
+            Map<String, Integer> finesBefore = new HashMap<>();
+            for (Person person : persons) {
+                if (finesBefore.containsKey(person.getId())) continue;
+                Person stored = store.findById(person.getId());
+                finesBefore.put(person.getId(), stored == null ? -1 : stored.getFines().size());
+            }
+            int added = store.importBatch(persons);
+            for (Map.Entry<String, Integer> entry : finesBefore.entrySet()) {
+                Person after = store.findById(entry.getKey());
+                if (after == null) continue;
+                if (entry.getValue() < 0) {
+                    counters.addPerson(after, 1);
+                    continue;
+                }
+                List<Fine> fines = after.getFines();
+                for (int i = entry.getValue(); i < fines.size(); i++) {
+                    counters.addFines(after.getBirthDay(), fines.get(i).getFineType(), fines.get(i).getCity(), 1);
+                }
+            }
+            return added;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    @Override
+    public void update(Person person) {
+        ReentrantLock lock = stripe(person.getId());
+        lock.lock();
+        try {
+            Person stored = store.findById(person.getId());
+            if (stored == null) {
+                store.update(person);
+                return;
+            }
+            int birthDay = stored.getBirthDay();
+            store.update(person);
+            Person after = store.findById(person.getId());
+            if (after != null) counters.moveBracket(birthDay, after.getBirthDay(), after.getFines().size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addFine(Person person, Fine fine) {
+        ReentrantLock lock = stripe(person.getId());
+        lock.lock();
+        try {
+            int before = fineCount(person.getId());
+            store.addFine(person, fine);
+            Person after = store.findById(person.getId());
+            if (before >= 0 && after != null && after.getFines().size() > before) {
+                counters.addFines(after.getBirthDay(), fine.getFineType(), fine.getCity(), 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeFines(Person person, String type, City city) {
+        ReentrantLock lock = stripe(person.getId());
+        lock.lock();
+        try {
+            Person stored = store.findById(person.getId());
+            FineType matched = null;
+            int before = 0;
+            if (stored != null) {
+                before = stored.getFines().size();
+                int key = FineType.keyOf(type);
+                for (Fine fine : stored.getFines()) {
+                    if (fine.getFineType().key() == key) {
+                        matched = fine.getFineType();
+                        break;
+                    }
+                }
+            }
+            boolean removed = store.removeFines(person, type, city);
+            Person after = store.findById(person.getId());
+            if (removed && matched != null && after != null) {
+                counters.addFines(after.getBirthDay(), matched, city, after.getFines().size() - before);
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clearFines(Person person) {
+        ReentrantLock lock = stripe(person.getId());
+        lock.lock();
+        try {
+            Person stored = store.findById(person.getId());
+            if (stored == null) {
+                store.clearFines(person);
+                return;
+            }
+            Fine[] fines = stored.getFines().toArray(new Fine[0]);
+            store.clearFines(person);
+            Person after = store.findById(person.getId());
+            if (after == null || !after.getFines().isEmpty()) return;
+            for (Fine fine : fines) {
+                counters.addFines(after.getBirthDay(), fine.getFineType(), fine.getCity(), -1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void moveTo(Person person, City city) {
+        store.moveTo(person, city);
+    }
+
+    @Override
+    public List<Person> findByFineType(String type) {
+        return store.findByFineType(type);
+    }
+
+    @Override
+    public List<Person> findByCity(City city) {
+        return store.findByCity(city);
+    }
+
+    @Override
+    public List<Person> findByFineCity(City city) {
+        return store.findByFineCity(city);
+    }
+
+    @Override
+    public City city(String name) {
+        return store.city(name);
+    }
+
+    private int fineCount(String id) {
+        Person stored = store.findById(id);
+        return stored == null ? -1 : stored.getFines().size();
+    }
+
+    private ReentrantLock stripe(String id) {
+        return stripes[(id.hashCode() & 0x7fffffff) % STRIPES];
+    }
+}
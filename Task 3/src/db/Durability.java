@@ -0,0 +1,7 @@
+package db;
+
+public enum Durability {
+    NONE,
+    GROUP,
+    SYNC
+}
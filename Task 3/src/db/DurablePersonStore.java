@@ -0,0 +1,401 @@
+package db;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import model.*;
+
+public final class DurablePersonStore implements PersonStore, Closeable {
+    public static final long CHECKPOINT_THRESHOLD = 64L << 20;
+
+    private static final String CURRENT = "CURRENT";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String LOG_PREFIX = "person-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private final Path directory;
+    private final PersonStore store;
+    private final Durability durability;
+    private final long checkpointThreshold;
+    private PersonLog log;
+    private long generation;
+    private int recoveredPersons;
+    private long replayedMutations;
+    private long recoveryNanos;
+    private Exception failure;
+
+    private DurablePersonStore(Path directory, PersonStore store, Durability durability, long checkpointThreshold) {
+        this.directory = directory;
+        this.store = store;
+        this.durability = durability;
+        this.checkpointThreshold = checkpointThreshold;
+    }
+
+    public static DurablePersonStore open(Path directory, PersonStore store, Durability durability) throws IOException {
+        return open(directory, store, durability, CHECKPOINT_THRESHOLD);
+    }
+
+    public static DurablePersonStore open(Path directory, PersonStore store, Durability durability, long checkpointThreshold) throws IOException {
+        if (!store.isEmpty()) throw new IllegalArgumentException("Recovery needs an empty store");
+        if (checkpointThreshold <= 0) throw new IllegalArgumentException("Checkpoint threshold must be positive: " + checkpointThreshold);
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+        DurablePersonStore durable = new DurablePersonStore(directory, store, durability, checkpointThreshold);
+        Path current = directory.resolve(CURRENT);
+        if (Files.exists(current)) {
+            durable.generation = Long.parseLong(Files.readString(current, StandardCharsets.UTF_8).trim());
+            durable.recoveredPersons = PersonSnapshot.read(snapshotFile(directory, durable.generation), store);
+        }
+        durable.log = PersonLog.open(logFile(directory, durable.generation), durability, durable::replay);
+        deleteStaleFiles(directory, durable.generation);
+        durable.recoveryNanos = System.nanoTime() - started;
+        return durable;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Person findById(String id) {
+        return store.findById(id);
+    }
+
+    @Override
+    public Collection<Person> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        return store.findBornBetween(fromDay, toDay);
+    }
+
+    @Override
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        return store.findBornBetweenWithFineIn(fromDay, toDay, city);
+    }
+
+    @Override
+    public long query(PersonQuery query, Predicate<? super Person> sink) {
+        return store.query(query, sink);
+    }
+
+    @Override
+    public List<Person> findPage(String afterId, int limit) {
+        return store.findPage(afterId, limit);
+    }
+
+    @Override
+    public boolean add(Person person) {
+        return mutate(() -> !store.contains(person.getId()), () -> store.add(person),
+                PersonLog.ADD_PERSON, out -> writePerson(out, person));
+    }
+
+    @Override
+    public int importBatch(List<Person> persons) {
+        PersonLog current;
+        long position = 0;
+        int added = 0;
+        synchronized (this) {
+            current = log;
+            for (Person person : persons) {
+                if (!store.contains(person.getId())) {
+                    position = append(current, PersonLog.ADD_PERSON, out -> writePerson(out, person));
+                    apply(() -> store.add(person));
+                    added++;
+                    continue;
+                }
+                Person stored = store.findById(person.getId());
+                for (Fine fine : person.getFines()) {
+                    position = append(current, PersonLog.ADD_FINE, out -> {
+                        out.writeUTF(person.getId());
+                        out.writeUTF(fine.getType());
+                        out.writeUTF(fine.getCity().getName());
+                    });
+                    apply(() -> store.addFine(stored, fine));
+                }
+            }
+        }
+        if (position > 0) commit(current, position);
+        return added;
+    }
+
+    @Override
+    public void update(Person person) {
+        mutate(() -> store.contains(person.getId()), () -> store.update(person), PersonLog.UPDATE_PERSON, out -> {
+            out.writeUTF(person.getId());
+            out.writeUTF(person.getFirstName());
+            out.writeUTF(person.getLastName());
+            out.writeUTF(person.getBirthDate());
+            out.writeUTF(person.getCity().getName());
+        });
+    }
+
+    @Override
+    public void addFine(Person person, Fine fine) {
+        mutate(() -> store.contains(person.getId()), () -> store.addFine(person, fine), PersonLog.ADD_FINE, out -> {
+            out.writeUTF(person.getId());
+            out.writeUTF(fine.getType());
+            out.writeUTF(fine.getCity().getName());
+        });
+    }
+
+    @Override
+    public boolean removeFines(Person person, String type, City city) {
+        return mutate(() -> hasFines(store.findById(person.getId()), type, city), () -> store.removeFines(person, type, city),
+                PersonLog.REMOVE_FINES, out -> {
+            out.writeUTF(person.getId());
+            out.writeUTF(type);
+            out.writeUTF(city.getName());
+        });
+    }
+
+    @Override
+    public void clearFines(Person person) {
+        mutate(() -> store.contains(person.getId()), () -> store.clearFines(person),
+                PersonLog.CLEAR_FINES, out -> out.writeUTF(person.getId()));
+    }
+
+    @Override
+    public void moveTo(Person person, City city) {
+        mutate(() -> store.contains(person.getId()), () -> store.moveTo(person, city), PersonLog.MOVE, out -> {
+            out.writeUTF(person.getId());
+            out.writeUTF(city.getName());
+        });
+    }
+
+    @Override
+    public List<Person> findByFineType(String type) {
+        return store.findByFineType(type);
+    }
+
+    @Override
+    public List<Person> findByCity(City city) {
+        return store.findByCity(city);
+    }
+
+    @Override
+    public List<Person> findByFineCity(City city) {
+        return store.findByFineCity(city);
+    }
+
+    @Override
+    public City city(String name) {
+        return store.city(name);
+    }
+
+    public Durability durability() {
+        return durability;
+    }
+
+    public int recoveredPersons() {
+        return recoveredPersons;
+    }
+
+    public long replayedMutations() {
+        return replayedMutations;
+    }
+
+    public long recoveryNanos() {
+        return recoveryNanos;
+    }
+
+    public synchronized long logSize() {
+        return log.size();
+    }
+
+    public synchronized long syncs() {
+        return log.syncs();
+    }
+
+    public synchronized void checkpoint() throws IOException {
+        if (failure != null) throw readOnly();
+        long next = generation + 1;
+        PersonSnapshot.write(snapshotFile(directory, next), store.findAll());
+        Path nextLogFile = logFile(directory, next);
+        Files.deleteIfExists(nextLogFile);
+        PersonLog nextLog = PersonLog.open(nextLogFile, durability, (operation, in) -> {
+            throw new IOException("Unexpected records in a new log: " + nextLogFile);
+        });
+
+        Path pointer = directory.resolve(CURRENT + ".tmp");
+        try {
+            Files.writeString(pointer, Long.toString(next), StandardCharsets.UTF_8);
+            Files.move(pointer, directory.resolve(CURRENT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            nextLog.close();
+            throw e;
+        }
+
+        PersonLog previous = log;
+        log = nextLog;
+        generation = next;
+        previous.close();
+        deleteStaleFiles(directory, generation);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private boolean mutate(BooleanSupplier applies, Runnable change, byte operation, PersonLog.Body body) {
+        PersonLog current;
+        long position;
+        synchronized (this) {
+            if (failure != null) throw readOnly();
+            if (!applies.getAsBoolean()) return false;
+            current = log;
+            position = append(current, operation, body);
+            apply(change);
+        }
+        commit(current, position);
+        return true;
+    }
+
+    private long append(PersonLog current, byte operation, PersonLog.Body body) {
+        if (failure != null) throw readOnly();
+        try {
+            return current.append(operation, body);
+        } catch (IOException e) {
+            failure = e;
+            throw readOnly();
+        }
+    }
+
+    private void apply(Runnable change) {
+        try {
+            change.run();
+        } catch (RuntimeException e) {
+            failure = e;
+            throw readOnly();
+        }
+    }
+
+    private void commit(PersonLog current, long position) {
+        try {
+            current.commit(position);
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                throw readOnly();
+            }
+        }
+        try {
+            if (position >= checkpointThreshold) checkpointIfLarge();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private IllegalStateException readOnly() {
+        return new IllegalStateException("Person store is read-only after a failed log write; reopen it to recover from "
+                + directory, failure);
+    }
+
+    private static boolean hasFines(Person person, String type, City city) {
+        if (person == null) return false;
+        int key = FineType.keyOf(type);
+        for (Fine fine : person.getFines()) {
+            if (fine.getFineType().key() == key && fine.getCity().getId() == city.getId()) return true;
+        }
+        return false;
+    }
+
+    private synchronized void checkpointIfLarge() throws IOException {
+        if (log.size() >= checkpointThreshold) checkpoint();
+    }
+
+    private void replay(byte operation, DataInput in) throws IOException {
+        replayedMutations++;
+        if (operation == PersonLog.ADD_PERSON) {
+            store.add(readPerson(in));
+            return;
+        }
+        String id = in.readUTF();
+        Person person = store.findById(id);
+        if (person == null) throw new IOException("Person log refers to an unknown person " + id);
+        switch (operation) {
+            case PersonLog.UPDATE_PERSON -> {
+                Person changes = new Person(person);
+                changes.setFirstName(in.readUTF());
+                changes.setLastName(in.readUTF());
+                changes.setBirthDay(BirthDate.parse(in.readUTF()));
+                changes.setCity(store.city(in.readUTF()));
+                store.update(changes);
+            }
+            case PersonLog.ADD_FINE -> store.addFine(person, new Fine(in.readUTF(), store.city(in.readUTF())));
+            case PersonLog.REMOVE_FINES -> store.removeFines(person, in.readUTF(), store.city(in.readUTF()));
+            case PersonLog.CLEAR_FINES -> store.clearFines(person);
+            case PersonLog.MOVE -> store.moveTo(person, store.city(in.readUTF()));
+            default -> throw new IOException("Unknown person log operation " + operation);
+        }
+    }
+
+    private static void writePerson(DataOutput out, Person person) throws IOException {
+        out.writeUTF(person.getId());
+        out.writeUTF(person.getFirstName());
+        out.writeUTF(person.getLastName());
+        out.writeUTF(person.getBirthDate());
+        out.writeUTF(person.getCity().getName());
+        List<Fine> fines = person.getFines();
+        out.writeInt(fines.size());
+        for (Fine fine : fines) {
+            out.writeUTF(fine.getType());
+            out.writeUTF(fine.getCity().getName());
+        }
+    }
+
+    private Person readPerson(DataInput in) throws IOException {
+        Person person = new Person(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), store.city(in.readUTF()));
+        int fines = in.readInt();
+        for (int i = 0; i < fines; i++) {
+            person.addFine(new Fine(in.readUTF(), store.city(in.readUTF())));
+        }
+        return person;
+    }
+
+    private static Path snapshotFile(Path directory, long generation) {
+        return directory.resolve(SNAPSHOT_PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    private static Path logFile(Path directory, long generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private static void deleteStaleFiles(Path directory, long generation) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long fileGeneration = generationOf(name, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+                if (fileGeneration < 0) fileGeneration = generationOf(name, LOG_PREFIX, LOG_SUFFIX);
+                if (fileGeneration >= 0 && fileGeneration != generation) Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private static long generationOf(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) return -1;
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import model.Person;
+
+public final class FineAggregator {
+    private static final long LEAF_SIZE = 8192;
+
+    private FineAggregator() {
+    }
+
+    public static FineReport aggregate(PersonStore store) {
+        return aggregate(store, ForkJoinPool.commonPool());
+    }
+
+    public static FineReport aggregate(PersonStore store, ForkJoinPool pool) {
+        return tally(store, pool).report();
+    }
+
+    static FineTally tally(PersonStore store, ForkJoinPool pool) {
+        return pool.invoke(new Reduction(store.findAll().spliterator()));
+    }
+
+    private static final class Reduction extends RecursiveTask<FineTally> {
+        private final Spliterator<Person> persons;
+
+        Reduction(Spliterator<Person> persons) {
+            this.persons = persons;
+        }
+
+        @Override
+        protected FineTally compute() {
+            List<Reduction> forks = new ArrayList<>();
+            Spliterator<Person> split;
+            while (persons.estimateSize() > LEAF_SIZE && (split = persons.trySplit()) != null) {
+                Reduction fork = new Reduction(split);
+                fork.fork();
+                forks.add(fork);
+            }
+            FineTally tally = new FineTally();
+            persons.forEachRemaining(person -> tally.add(person, 1));
+            for (int i = forks.size() - 1; i >= 0; i--) {
+                tally.merge(forks.get(i).join());
+            }
+            return tally;
+        }
+    }
+}
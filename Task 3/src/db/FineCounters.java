@@ -0,0 +1,109 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import model.*;
+
+final class FineCounters {
+    private final LongAdder persons = new LongAdder();
+    private final LongAdder fines = new LongAdder();
+    private final ConcurrentMap<Integer, City> cities = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, LongAdder> byCity = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> typeNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, ConcurrentMap<Integer, LongAdder>> byTypeAndCity = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, LongAdder[]> byBracket = new ConcurrentHashMap<>();
+
+    FineCounters(FineTally tally) {
+        tally.addTo(this);
+    }
+
+    void addPerson(Person person, long sign) {
+        persons.add(sign);
+        bracket(person.getBirthDay())[0].add(sign);
+        for (Fine fine : person.getFines()) {
+            addFines(person.getBirthDay(), fine.getFineType(), fine.getCity(), sign);
+        }
+    }
+
+    void addFines(int birthDay, FineType type, City city, long count) {
+        if (count == 0) return;
+        typeNames.putIfAbsent(type.key(), type.name().trim().toLowerCase(Locale.ROOT));
+        count(type.key(), city, count);
+        bracket(birthDay)[1].add(count);
+    }
+
+    void moveBracket(int fromDay, int toDay, long fineCount) {
+        LongAdder[] from = bracket(fromDay);
+        LongAdder[] to = bracket(toDay);
+        if (from == to) return;
+        from[0].decrement();
+        from[1].add(-fineCount);
+        to[0].increment();
+        to[1].add(fineCount);
+    }
+
+    void seedPersons(long count) {
+        persons.add(count);
+    }
+
+    void seedFines(String type, City city, long count) {
+        int key = FineType.keyOf(type);
+        typeNames.putIfAbsent(key, type);
+        count(key, city, count);
+    }
+
+    void seedBracket(int bracket, long persons, long fines) {
+        LongAdder[] counts = byBracket.computeIfAbsent(bracket, k -> new LongAdder[] {new LongAdder(), new LongAdder()});
+        counts[0].add(persons);
+        counts[1].add(fines);
+    }
+
+    FineReport report() {
+        Map<String, Map<String, Long>> typeAndCity = new TreeMap<>();
+        for (Map.Entry<Integer, ConcurrentMap<Integer, LongAdder>> entry : byTypeAndCity.entrySet()) {
+            Map<String, Long> row = new TreeMap<>();
+            entry.getValue().forEach((city, count) -> {
+                long sum = count.sum();
+                if (sum != 0) row.put(cities.get(city).getName(), sum);
+            });
+            if (!row.isEmpty()) typeAndCity.put(typeNames.get(entry.getKey()), Collections.unmodifiableMap(row));
+        }
+        Map<String, Long> cityFines = new TreeMap<>();
+        byCity.forEach((city, count) -> {
+            long sum = count.sum();
+            if (sum != 0) cityFines.put(cities.get(city).getName(), sum);
+        });
+        SortedMap<Integer, Long> bracketPersons = new TreeMap<>();
+        SortedMap<Integer, Long> bracketFines = new TreeMap<>();
+        byBracket.forEach((bracket, counts) -> {
+            long personCount = counts[0].sum();
+            if (personCount == 0) return;
+            bracketPersons.put(bracket, personCount);
+            bracketFines.put(bracket, counts[1].sum());
+        });
+        return new FineReport(persons.sum(), fines.sum(), typeAndCity, cityFines, bracketPersons, bracketFines);
+    }
+
+    private void count(int typeKey, City city, long count) {
+        cities.putIfAbsent(city.getId(), city);
+        fines.add(count);
+        counter(byCity, city.getId()).add(count);
+        ConcurrentMap<Integer, LongAdder> row = byTypeAndCity.get(typeKey);
+        if (row == null) row = byTypeAndCity.computeIfAbsent(typeKey, k -> new ConcurrentHashMap<>());
+        counter(row, city.getId()).add(count);
+    }
+
+    private LongAdder[] bracket(int birthDay) {
+        int year = BirthDate.yearOf(birthDay);
+        int bracket = year - Math.floorMod(year, FineTally.BRACKET_YEARS);
+        LongAdder[] counts = byBracket.get(bracket);
+        return counts != null ? counts : byBracket.computeIfAbsent(bracket, k -> new LongAdder[] {new LongAdder(), new LongAdder()});
+    }
+
+    private static LongAdder counter(ConcurrentMap<Integer, LongAdder> counters, int id) {
+        LongAdder counter = counters.get(id);
+        return counter != null ? counter : counters.computeIfAbsent(id, k -> new LongAdder());
+    }
+}
@@ -0,0 +1,71 @@
+package db;
+
+import java.util.*;
+
+public final class FineReport {
+    private final long persons;
+    private final long fines;
+    private final Map<String, Map<String, Long>> finesByTypeAndCity;
+    private final Map<String, Long> finesByCity;
+    private final SortedMap<Integer, Long> personsByBirthBracket;
+    private final SortedMap<Integer, Long> finesByBirthBracket;
+
+    FineReport(long persons, long fines, Map<String, Map<String, Long>> finesByTypeAndCity, Map<String, Long> finesByCity,
+               SortedMap<Integer, Long> personsByBirthBracket, SortedMap<Integer, Long> finesByBirthBracket) {
+        this.persons = persons;
+        this.fines = fines;
+        this.finesByTypeAndCity = Collections.unmodifiableMap(finesByTypeAndCity);
+        this.finesByCity = Collections.unmodifiableMap(finesByCity);
+        this.personsByBirthBracket = Collections.unmodifiableSortedMap(personsByBirthBracket);
+        this.finesByBirthBracket = Collections.unmodifiableSortedMap(finesByBirthBracket);
+    }
+
+    public long persons() {
+        return persons;
+    }
+
+    public long fines() {
+        return fines;
+    }
+
+    public int bracketYears() {
+        return FineTally.BRACKET_YEARS;
+    }
+
+    public Map<String, Map<String, Long>> finesByTypeAndCity() {
+        return finesByTypeAndCity;
+    }
+
+    public Map<String, Long> finesByCity() {
+        return finesByCity;
+    }
+
+    public List<Map.Entry<String, Long>> topCities(int limit) {
+        List<Map.Entry<String, Long>> cities = new ArrayList<>(finesByCity.entrySet());
+        cities.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        return cities.subList(0, Math.min(limit, cities.size()));
+    }
+
+    public SortedMap<Integer, Long> personsByBirthBracket() {
+        return personsByBirthBracket;
+    }
+
+    public SortedMap<Integer, Long> finesByBirthBracket() {
+        return finesByBirthBracket;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FineReport)) return false;
+        FineReport other = (FineReport) o;
+        return persons == other.persons && fines == other.fines
+                && finesByTypeAndCity.equals(other.finesByTypeAndCity) && finesByCity.equals(other.finesByCity)
+                && personsByBirthBracket.equals(other.personsByBirthBracket) && finesByBirthBracket.equals(other.finesByBirthBracket);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(persons, fines, finesByTypeAndCity, finesByCity);
+    }
+}
@@ -0,0 +1,124 @@
+package db;
+
+import java.util.*;
+import model.*;
+
+final class FineTally {
+    static final int BRACKET_YEARS = 10;
+
+    private String[] typeKeys = new String[16];
+    private final Map<String, long[]> byTypeAndCity = new HashMap<>();
+    private final Map<Integer, long[]> byBracket = new HashMap<>();
+    private City[] cities = new City[16];
+    private long[] byCity = new long[16];
+    private long persons;
+    private long fines;
+
+    void add(Person person, long sign) {
+        persons += sign;
+        int year = BirthDate.yearOf(person.getBirthDay());
+        long[] bracket = byBracket.computeIfAbsent(year - Math.floorMod(year, BRACKET_YEARS), k -> new long[2]);
+        bracket[0] += sign;
+        bracket[1] += sign * person.getFines().size();
+        for (Fine fine : person.getFines()) {
+            int city = slot(fine.getCity());
+            byCity[city] += sign;
+            typeRow(typeKey(fine.getFineType()))[city] += sign;
+            fines += sign;
+        }
+    }
+
+    void merge(FineTally other) {
+        persons += other.persons;
+        fines += other.fines;
+        ensureCapacity(other.cities.length);
+        for (int city = 0; city < other.cities.length; city++) {
+            if (other.cities[city] == null) continue;
+            slot(other.cities[city]);
+            byCity[city] += other.byCity[city];
+        }
+        for (Map.Entry<String, long[]> entry : other.byTypeAndCity.entrySet()) {
+            long[] row = typeRow(entry.getKey());
+            long[] counts = entry.getValue();
+            for (int city = 0; city < counts.length; city++) {
+                row[city] += counts[city];
+            }
+        }
+        for (Map.Entry<Integer, long[]> entry : other.byBracket.entrySet()) {
+            long[] bracket = byBracket.computeIfAbsent(entry.getKey(), k -> new long[2]);
+            bracket[0] += entry.getValue()[0];
+            bracket[1] += entry.getValue()[1];
+        }
+    }
+
+    void addTo(FineCounters counters) {
+        counters.seedPersons(persons);
+        for (Map.Entry<String, long[]> entry : byTypeAndCity.entrySet()) {
+            long[] counts = entry.getValue();
+            for (int city = 0; city < counts.length; city++) {
+                if (counts[city] != 0) counters.seedFines(entry.getKey(), cities[city], counts[city]);
+            }
+        }
+        for (Map.Entry<Integer, long[]> entry : byBracket.entrySet()) {
+            counters.seedBracket(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    FineReport report() {
+        Map<String, Map<String, Long>> typeAndCity = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : byTypeAndCity.entrySet()) {
+            Map<String, Long> row = new TreeMap<>();
+            long[] counts = entry.getValue();
+            for (int city = 0; city < counts.length; city++) {
+                if (counts[city] != 0) row.put(cities[city].getName(), counts[city]);
+            }
+            if (!row.isEmpty()) typeAndCity.put(entry.getKey(), Collections.unmodifiableMap(row));
+        }
+        Map<String, Long> cityFines = new TreeMap<>();
+        for (int city = 0; city < byCity.length; city++) {
+            if (byCity[city] != 0) cityFines.put(cities[city].getName(), byCity[city]);
+        }
+        SortedMap<Integer, Long> bracketPersons = new TreeMap<>();
+        SortedMap<Integer, Long> bracketFines = new TreeMap<>();
+        for (Map.Entry<Integer, long[]> entry : byBracket.entrySet()) {
+            if (entry.getValue()[0] == 0) continue;
+            bracketPersons.put(entry.getKey(), entry.getValue()[0]);
+            bracketFines.put(entry.getKey(), entry.getValue()[1]);
+        }
+        return new FineReport(persons, fines, typeAndCity, cityFines, bracketPersons, bracketFines);
+    }
+
+    private int slot(City city) {
+        int id = city.getId();
+        if (id >= cities.length) ensureCapacity(Math.max(id + 1, cities.length * 2));
+        if (cities[id] == null) cities[id] = city;
+        return id;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= cities.length) return;
+        cities = Arrays.copyOf(cities, capacity);
+        byCity = Arrays.copyOf(byCity, capacity);
+    }
+
+    private long[] typeRow(String type) {
+        long[] row = byTypeAndCity.get(type);
+        if (row == null || row.length < cities.length) {
+            row = row == null ? new long[cities.length] : Arrays.copyOf(row, cities.length);
+            byTypeAndCity.put(type, row);
+        }
+        return row;
+    }
+
+    private String typeKey(FineType type) {
+        int code = type.code();
+        if (code >= typeKeys.length) typeKeys = Arrays.copyOf(typeKeys, Math.max(code + 1, typeKeys.length * 2));
+        String key = typeKeys[code];
+        if (key == null) typeKeys[code] = key = normalize(type.name());
+        return key;
+    }
+
+    private static String normalize(String type) {
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+}
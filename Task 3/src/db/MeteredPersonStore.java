@@ -0,0 +1,191 @@
+package db;
+
+import java.util.*;
+import java.util.function.Predicate;
+import metrics.Metrics;
+import metrics.Operation;
+import model.*;
+
+public final class MeteredPersonStore implements PersonStore {
+    private final PersonStore store;
+    private final Operation findById;
+    private final Operation findPage;
+    private final Operation query;
+    private final Operation findBornBetween;
+    private final Operation findBornBetweenWithFineIn;
+    private final Operation findByFineType;
+    private final Operation findByCity;
+    private final Operation findByFineCity;
+    private final Operation add;
+    private final Operation importBatch;
+    private final Operation update;
+    private final Operation addFine;
+    private final Operation removeFines;
+    private final Operation clearFines;
+    private final Operation moveTo;
+    private final Operation city;
+
+    public MeteredPersonStore(PersonStore store, Metrics metrics) {
+        this.store = store;
+        this.findById = metrics.operation("store.find-by-id");
+        this.findPage = metrics.operation("store.find-page");
+        this.query = metrics.operation("store.query");
+        this.findBornBetween = metrics.operation("store.find-born-between");
+        this.findBornBetweenWithFineIn = metrics.operation("store.find-born-between-with-fine-in");
+        this.findByFineType = metrics.operation("store.find-by-fine-type");
+        this.findByCity = metrics.operation("store.find-by-city");
+        this.findByFineCity = metrics.operation("store.find-by-fine-city");
+        this.add = metrics.operation("store.add");
+        this.importBatch = metrics.operation("store.import-batch");
+        this.update = metrics.operation("store.update");
+        this.addFine = metrics.operation("store.add-fine");
+        this.removeFines = metrics.operation("store.remove-fines");
+        this.clearFines = metrics.operation("store.clear-fines");
+        this.moveTo = metrics.operation("store.move-to");
+        this.city = metrics.operation("store.city");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public boolean contains(String id) {
+        return store.contains(id);
+    }
+
+    @Override
+    public Person findById(String id) {
+        long started = System.nanoTime();
+        Person person = store.findById(id);
+        findById.recordSince(started);
+        return person;
+    }
+
+    @Override
+    public Collection<Person> findAll() {
+        return store.findAll();
+    }
+
+    @Override
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        long started = System.nanoTime();
+        List<Person> found = store.findBornBetween(fromDay, toDay);
+        findBornBetween.recordSince(started);
+        return found;
+    }
+
+    @Override
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        long started = System.nanoTime();
+        List<Person> found = store.findBornBetweenWithFineIn(fromDay, toDay, city);
+        findBornBetweenWithFineIn.recordSince(started);
+        return found;
+    }
+
+    @Override
+    public long query(PersonQuery query, Predicate<? super Person> sink) {
+        long started = System.nanoTime();
+        long found = store.query(query, sink);
+        this.query.recordSince(started);
+        return found;
+    }
+
+    @Override
+    public List<Person> findPage(String afterId, int limit) {
+        long started = System.nanoTime();
+        List<Person> page = store.findPage(afterId, limit);
+        findPage.recordSince(started);
+        return page;
+    }
+
+    @Override
+    public boolean add(Person person) {
+        long started = System.nanoTime();
+        boolean added = store.add(person);
+        add.recordSince(started);
+        return added;
+    }
+
+    @Override
+    public int importBatch(List<Person> persons) {
+        long started = System.nanoTime();
+        int added = store.importBatch(persons);
+        importBatch.recordSince(started);
+        return added;
+    }
+
+    @Override
+    public void update(Person person) {
+        long started = System.nanoTime();
+        store.update(person);
+        update.recordSince(started);
+    }
+
+    @Override
+    public void addFine(Person person, Fine fine) {
+        long started = System.nanoTime();
+        store.addFine(person, fine);
+        addFine.recordSince(started);
+    }
+
+    @Override
+    public boolean removeFines(Person person, String type, City city) {
+        long started = System.nanoTime();
+        boolean removed = store.removeFines(person, type, city);
+        removeFines.recordSince(started);
+        return removed;
+    }
+
+    @Override
+    public void clearFines(Person person) {
+        long started = System.nanoTime();
+        store.clearFines(person);
+        clearFines.recordSince(started);
+    }
+
+    @Override
+    public void moveTo(Person person, City city) {
+        long started = System.nanoTime();
+        store.moveTo(person, city);
+        moveTo.recordSince(started);
+    }
+
+    @Override
+    public List<Person> findByFineType(String type) {
+        long started = System.nanoTime();
+        List<Person> found = store.findByFineType(type);
+        findByFineType.recordSince(started);
+        return found;
+    }
+
+    @Override
+    public List<Person> findByCity(City city) {
+        long started = System.nanoTime();
+        List<Person> found = store.findByCity(city);
+        findByCity.recordSince(started);
+        return found;
+    }
+
+    @Override
+    public List<Person> findByFineCity(City city) {
+        long started = System.nanoTime();
+        List<Person> found = store.findByFineCity(city);
+        findByFineCity.recordSince(started);
+        return found;
+    }
+
+    @Override
+    public City city(String name) {
+        long started = System.nanoTime();
+        City found = store.city(name);
+        city.recordSince(started);
+        return found;
+    }
+}
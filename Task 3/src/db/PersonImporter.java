@@ -0,0 +1,472 @@
+package db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import model.*;
+
+public class PersonImporter {
+    static final int CHUNK_SIZE = 4 << 20;
+    private static final int BATCH_SIZE = 4096;
+    private static final int SAMPLE_LIMIT = 10;
+    private static final int SAMPLE_LENGTH = 120;
+
+    private final PersonStore database;
+    private final int threads;
+    private final Object storeLock = new Object();
+    private final Map<String, City> cities = new ConcurrentHashMap<>();
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persons = new LongAdder();
+    private final LongAdder fines = new LongAdder();
+    private final Queue<String> samples = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger sampled = new AtomicInteger();
+    private Format format;
+
+    public PersonImporter(PersonStore database, int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        this.database = database;
+        this.threads = threads;
+    }
+
+    public Report importFile(Path file) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        format = Format.of(file);
+        rows.reset();
+        rejected.reset();
+        persons.reset();
+        fines.reset();
+        samples.clear();
+        sampled.set(0);
+
+        BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(threads + 2);
+        for (int i = 0; i < threads + 2; i++) {
+            free.add(new byte[CHUNK_SIZE]);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] buffer = free.take();
+            int filled = 0;
+            boolean first = true;
+            while (failure.get() == null) {
+                int read = channel.read(ByteBuffer.wrap(buffer, filled, buffer.length - filled));
+                if (read > 0) filled += read;
+                if (read >= 0 && filled < buffer.length) continue;
+
+                boolean end = read < 0;
+                int start = first && hasByteOrderMark(buffer, filled) ? 3 : 0;
+                first = false;
+                int cut = end ? filled : lastLineEnd(buffer, filled);
+                if (cut <= start && !end) throw new IllegalArgumentException("Line longer than " + CHUNK_SIZE + " bytes in " + file);
+
+                byte[] next = end ? null : free.take();
+                if (next != null) System.arraycopy(buffer, cut, next, 0, filled - cut);
+                byte[] chunk = buffer;
+                executor.execute(() -> {
+                    try {
+                        parse(chunk, start, cut);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        free.add(chunk);
+                    }
+                });
+                if (end) break;
+                filled -= cut;
+                buffer = next;
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            strings.clear();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException e) throw e;
+        if (error != null) throw new IllegalStateException(error);
+        return new Report(rows.sum(), rejected.sum(), persons.sum(), fines.sum(), System.nanoTime() - started, List.copyOf(samples));
+    }
+
+    private void parse(byte[] buffer, int position, int limit) {
+        List<Person> batch = new ArrayList<>(BATCH_SIZE);
+        String[] fields = new String[8];
+        Person current = null;
+        long rowCount = 0;
+        long rejectedCount = 0;
+        long fineCount = 0;
+
+        while (position < limit) {
+            int end = position;
+            while (end < limit && buffer[end] != '\n') end++;
+            int lineEnd = end > position && buffer[end - 1] == '\r' ? end - 1 : end;
+            int start = position;
+            position = end + 1;
+            if (lineEnd == start) continue;
+
+            Person row;
+            try {
+                row = format == Format.NDJSON ? parseJson(new JsonCursor(buffer, start, lineEnd)) : parseDelimited(buffer, start, lineEnd, fields);
+            } catch (Rejected e) {
+                rowCount++;
+                rejectedCount++;
+                sample(e.getMessage(), buffer, start, lineEnd);
+                continue;
+            }
+            if (row == null) continue;
+            rowCount++;
+            fineCount += row.getFines().size();
+
+            if (current != null && current.getId().equals(row.getId())) {
+                for (Fine fine : row.getFines()) {
+                    current.addFine(fine);
+                }
+                continue;
+            }
+            if (current != null) batch.add(current);
+            if (batch.size() >= BATCH_SIZE) {
+                store(batch);
+                batch.clear();
+            }
+            current = row;
+        }
+        if (current != null) batch.add(current);
+        if (!batch.isEmpty()) store(batch);
+        rows.add(rowCount);
+        rejected.add(rejectedCount);
+        fines.add(fineCount);
+    }
+
+    private void store(List<Person> batch) {
+        synchronized (storeLock) {
+            persons.add(database.importBatch(batch));
+        }
+    }
+
+    private Person parseDelimited(byte[] buffer, int start, int limit, String[] fields) throws Rejected {
+        int count = split(buffer, start, limit, fields);
+        if (count < 0) throw new Rejected("unbalanced quotes");
+        if (count >= 1 && fields[0].trim().equalsIgnoreCase("id")) return null;
+        if (count != 5 && count != 7) throw new Rejected("expected 5 or 7 fields, found " + count);
+        Person person = person(fields[0].trim(), fields[1].trim(), fields[2].trim(), fields[3].trim(), fields[4].trim());
+        if (count == 7) person.addFine(fine(fields[5], fields[6].trim()));
+        return person;
+    }
+
+    private Person parseJson(JsonCursor in) throws Rejected {
+        String id = null;
+        String firstName = null;
+        String lastName = null;
+        String birthDate = null;
+        String city = null;
+        List<String> fineFields = new ArrayList<>();
+        in.expect('{');
+        if (!in.consume('}')) {
+            do {
+                String key = in.readString();
+                in.expect(':');
+                switch (key) {
+                    case "id" -> id = in.readScalar();
+                    case "firstName" -> firstName = in.readString();
+                    case "lastName" -> lastName = in.readString();
+                    case "birthDate" -> birthDate = in.readString();
+                    case "city" -> city = in.readString();
+                    case "fines" -> readFines(in, fineFields);
+                    default -> in.skipValue();
+                }
+            } while (in.consume(','));
+            in.expect('}');
+        }
+        in.expectEnd();
+        if (id == null || firstName == null || lastName == null || birthDate == null || city == null) {
+            throw new Rejected("missing id, firstName, lastName, birthDate or city");
+        }
+        Person person = person(id.trim(), firstName.trim(), lastName.trim(), birthDate.trim(), city.trim());
+        for (int i = 0; i < fineFields.size(); i += 2) {
+            person.addFine(fine(fineFields.get(i), fineFields.get(i + 1).trim()));
+        }
+        return person;
+    }
+
+    private static void readFines(JsonCursor in, List<String> fineFields) throws Rejected {
+        in.expect('[');
+        if (in.consume(']')) return;
+        do {
+            String type = null;
+            String city = null;
+            in.expect('{');
+            if (!in.consume('}')) {
+                do {
+                    String key = in.readString();
+                    in.expect(':');
+                    switch (key) {
+                        case "type" -> type = in.readString();
+                        case "city" -> city = in.readString();
+                        default -> in.skipValue();
+                    }
+                } while (in.consume(','));
+                in.expect('}');
+            }
+            if (type == null || city == null) throw new Rejected("fine without type or city");
+            fineFields.add(type);
+            fineFields.add(city);
+        } while (in.consume(','));
+        in.expect(']');
+    }
+
+    private Person person(String id, String firstName, String lastName, String birthDate, String city) throws Rejected {
+        if (!isId(id)) throw new Rejected("invalid ID");
+        if (!isName(firstName)) throw new Rejected("invalid first name");
+        if (!isName(lastName)) throw new Rejected("invalid last name");
+        int birthDay;
+        try {
+            birthDay = BirthDate.parseBirthDate(birthDate);
+        } catch (IllegalArgumentException e) {
+            throw new Rejected("invalid birth date");
+        }
+        if (!isName(city)) throw new Rejected("invalid city");
+        return new Person(id, intern(firstName), intern(lastName), birthDay, city(city));
+    }
+
+    private Fine fine(String type, String city) throws Rejected {
+        if (type.isBlank()) throw new Rejected("empty fine type");
+        if (!isName(city)) throw new Rejected("invalid fine city");
+        return new Fine(intern(type.trim()), city(city));
+    }
+
+    private City city(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        City city = cities.get(key);
+        if (city != null) return city;
+        synchronized (storeLock) {
+            return cities.computeIfAbsent(key, k -> database.city(name));
+        }
+    }
+
+    private String intern(String value) {
+        String existing = strings.putIfAbsent(value, value);
+        return existing == null ? value : existing;
+    }
+
+    private void sample(String reason, byte[] buffer, int start, int limit) {
+        if (sampled.getAndIncrement() >= SAMPLE_LIMIT) return;
+        String line = new String(buffer, start, Math.min(limit - start, SAMPLE_LENGTH), StandardCharsets.UTF_8);
+        samples.add(reason + ": " + line);
+    }
+
+    private int split(byte[] buffer, int position, int limit, String[] fields) {
+        byte separator = format.separator;
+        int count = 0;
+        while (true) {
+            if (count == fields.length) return count + 1;
+            int fieldEnd;
+            if (position < limit && buffer[position] == '"') {
+                int close = position + 1;
+                boolean escaped = false;
+                while (true) {
+                    if (close >= limit) return -1;
+                    if (buffer[close] == '"') {
+                        if (close + 1 < limit && buffer[close + 1] == '"') {
+                            escaped = true;
+                            close += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    close++;
+                }
+                String value = new String(buffer, position + 1, close - position - 1, StandardCharsets.UTF_8);
+                fields[count++] = escaped ? value.replace("\"\"", "\"") : value;
+                fieldEnd = close + 1;
+                if (fieldEnd < limit && buffer[fieldEnd] != separator) return -1;
+            } else {
+                fieldEnd = position;
+                while (fieldEnd < limit && buffer[fieldEnd] != separator) fieldEnd++;
+                fields[count++] = new String(buffer, position, fieldEnd - position, StandardCharsets.UTF_8);
+            }
+            if (fieldEnd >= limit) return count;
+            position = fieldEnd + 1;
+        }
+    }
+
+    static boolean isId(String value) {
+        if (value.length() != 10) return false;
+        for (int i = 0; i < 10; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    static boolean isName(String value) {
+        if (value.isEmpty()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-')) return false;
+        }
+        return true;
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') return i + 1;
+        }
+        return 0;
+    }
+
+    private static boolean hasByteOrderMark(byte[] buffer, int length) {
+        return length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF;
+    }
+
+    public record Report(long rows, long rejected, long persons, long fines, long nanos, List<String> rejectedSamples) {
+        public double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows * 1e9 / nanos;
+        }
+    }
+
+    private enum Format {
+        CSV((byte) ','),
+        TSV((byte) '\t'),
+        NDJSON((byte) 0);
+
+        final byte separator;
+
+        Format(byte separator) {
+            this.separator = separator;
+        }
+
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) return NDJSON;
+            return name.endsWith(".tsv") ? TSV : CSV;
+        }
+    }
+
+    private static final class Rejected extends Exception {
+        Rejected(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+
+    private static final class JsonCursor {
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+
+        JsonCursor(byte[] buffer, int position, int limit) {
+            this.buffer = buffer;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        void expect(char c) throws Rejected {
+            if (!consume(c)) throw new Rejected("expected '" + c + "'");
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < limit && buffer[position] == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() throws Rejected {
+            skipWhitespace();
+            if (position != limit) throw new Rejected("trailing characters");
+        }
+
+        String readScalar() throws Rejected {
+            skipWhitespace();
+            if (position < limit && buffer[position] == '"') return readString();
+            int start = position;
+            while (position < limit && isToken(buffer[position])) position++;
+            if (position == start) throw new Rejected("expected a value");
+            return new String(buffer, start, position - start, StandardCharsets.US_ASCII);
+        }
+
+        String readString() throws Rejected {
+            expect('"');
+            int start = position;
+            while (position < limit && buffer[position] != '"' && buffer[position] != '\\') position++;
+            if (position < limit && buffer[position] == '"') {
+                return new String(buffer, start, position++ - start, StandardCharsets.UTF_8);
+            }
+            StringBuilder value = new StringBuilder().append(new String(buffer, start, position - start, StandardCharsets.UTF_8));
+            while (true) {
+                if (position >= limit) throw new Rejected("unterminated string");
+                byte b = buffer[position++];
+                if (b == '"') return value.toString();
+                if (b != '\\') {
+                    int runStart = position - 1;
+                    while (position < limit && buffer[position] != '"' && buffer[position] != '\\') position++;
+                    value.append(new String(buffer, runStart, position - runStart, StandardCharsets.UTF_8));
+                    continue;
+                }
+                if (position >= limit) throw new Rejected("unterminated string");
+                byte escape = buffer[position++];
+                switch (escape) {
+                    case '"', '\\', '/' -> value.append((char) escape);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > limit) throw new Rejected("invalid escape");
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(buffer[position++], 16);
+                            if (digit < 0) throw new Rejected("invalid escape");
+                            code = code * 16 + digit;
+                        }
+                        value.append((char) code);
+                    }
+                    default -> throw new Rejected("invalid escape");
+                }
+            }
+        }
+
+        void skipValue() throws Rejected {
+            skipWhitespace();
+            if (position >= limit) throw new Rejected("expected a value");
+            byte b = buffer[position];
+            if (b == '"') {
+                readString();
+            } else if (b == '{' || b == '[') {
+                int depth = 0;
+                do {
+                    if (position >= limit) throw new Rejected("unbalanced brackets");
+                    b = buffer[position];
+                    if (b == '"') {
+                        readString();
+                        continue;
+                    }
+                    if (b == '{' || b == '[') depth++;
+                    if (b == '}' || b == ']') depth--;
+                    position++;
+                } while (depth > 0);
+            } else {
+                readScalar();
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < limit && (buffer[position] == ' ' || buffer[position] == '\t')) position++;
+        }
+
+        private static boolean isToken(byte b) {
+            return b >= '0' && b <= '9' || b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b == '-' || b == '+' || b == '.';
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package db;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+final class PersonLog implements Closeable {
+    static final byte ADD_PERSON = 1;
+    static final byte UPDATE_PERSON = 2;
+    static final byte ADD_FINE = 3;
+    static final byte REMOVE_FINES = 4;
+    static final byte CLEAR_FINES = 5;
+    static final byte MOVE = 6;
+
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final Durability durability;
+    private final Buffer buffer = new Buffer();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+    private final CRC32 crc = new CRC32();
+    private final Object syncLock = new Object();
+    private volatile long written;
+    private volatile long durable;
+    private long syncs;
+    private boolean closed;
+
+    private PersonLog(FileChannel channel, Durability durability, long size) {
+        this.channel = channel;
+        this.durability = durability;
+        this.written = size;
+        this.durable = size;
+    }
+
+    static PersonLog open(Path file, Durability durability, Replayer replayer) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long valid = replay(channel, replayer);
+            if (valid < channel.size()) {
+                channel.truncate(valid);
+                channel.force(false);
+            }
+            channel.position(valid);
+            return new PersonLog(channel, durability, valid);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    synchronized long append(byte operation, Body body) throws IOException {
+        buffer.reset();
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(operation);
+        body.writeTo(out);
+
+        ByteBuffer record = ByteBuffer.wrap(buffer.array(), 0, buffer.size());
+        crc.reset();
+        crc.update(buffer.array(), RECORD_HEADER, buffer.size() - RECORD_HEADER);
+        record.putInt(0, buffer.size() - RECORD_HEADER);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        long position = written + buffer.size();
+        written = position;
+        if (durability == Durability.SYNC) {
+            synchronized (syncLock) {
+                channel.force(false);
+                durable = position;
+                syncs++;
+            }
+        }
+        return position;
+    }
+
+    void commit(long position) throws IOException {
+        if (durability == Durability.NONE || durable >= position) return;
+        synchronized (syncLock) {
+            if (closed || durable >= position) return;
+            long target = written;
+            channel.force(false);
+            durable = target;
+            syncs++;
+        }
+    }
+
+    long size() {
+        return written;
+    }
+
+    long syncs() {
+        synchronized (syncLock) {
+            return syncs;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        synchronized (syncLock) {
+            if (closed) return;
+            closed = true;
+            try {
+                channel.force(false);
+                durable = written;
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private static long replay(FileChannel channel, Replayer replayer) throws IOException {
+        long size = channel.size();
+        if (size == 0) return 0;
+        if (size > Integer.MAX_VALUE) throw new IOException("Person log is larger than 2 GB");
+        ByteBuffer log = ByteBuffer.allocate((int) size);
+        while (log.hasRemaining() && channel.read(log, log.position()) >= 0) {
+        }
+        byte[] bytes = log.array();
+        CRC32 checksum = new CRC32();
+        int position = 0;
+        while (position + RECORD_HEADER <= size) {
+            int length = log.getInt(position);
+            int expected = log.getInt(position + Integer.BYTES);
+            int start = position + RECORD_HEADER;
+            if (length <= 0 || start + (long) length > size) break;
+            checksum.reset();
+            checksum.update(bytes, start, length);
+            if ((int) checksum.getValue() != expected) break;
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, start, length));
+            replayer.apply(in.readByte(), in);
+            position = start + length;
+        }
+        return position;
+    }
+
+    interface Body {
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    interface Replayer {
+        void apply(byte operation, DataInput in) throws IOException;
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(256);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
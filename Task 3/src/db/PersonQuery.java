@@ -0,0 +1,213 @@
+package db;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import model.*;
+
+public final class PersonQuery {
+    static final long LEAF_SIZE = 8192;
+
+    private int fromDay = Integer.MIN_VALUE;
+    private int toDay = Integer.MAX_VALUE;
+    private City city;
+    private String fineType;
+    private City fineCity;
+    private String namePrefix;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    public PersonQuery bornBetween(int fromDay, int toDay) {
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+        return this;
+    }
+
+    public PersonQuery livingIn(City city) {
+        this.city = city;
+        return this;
+    }
+
+    public PersonQuery withFine(String type, City city) {
+        this.fineType = type;
+        this.fineCity = city;
+        return this;
+    }
+
+    public PersonQuery nameStartsWith(String prefix) {
+        this.namePrefix = prefix == null || prefix.isEmpty() ? null : prefix.toLowerCase(Locale.ROOT);
+        return this;
+    }
+
+    public PersonQuery on(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    public long scan(PersonStore store, Predicate<? super Person> sink) {
+        return store.query(this, Objects.requireNonNull(sink));
+    }
+
+    public long count(PersonStore store) {
+        return store.query(this, null);
+    }
+
+    public List<Person> find(PersonStore store, int limit) {
+        List<Person> found = new ArrayList<>();
+        if (limit > 0) {
+            scan(store, person -> {
+                found.add(person);
+                return found.size() < limit;
+            });
+        }
+        found.sort(Comparator.comparing(Person::getId));
+        return found;
+    }
+
+    long scan(Collection<Person> persons, Predicate<? super Person> sink) {
+        if (matchesNothing()) return 0;
+        Compiled compiled = compile();
+        Matches matches = new Matches(sink);
+        pool.invoke(new Scan(persons.spliterator(), compiled, matches));
+        return matches.delivered.get();
+    }
+
+    boolean matchesNothing() {
+        return fromDay > toDay || fineType != null && FineType.keyOf(fineType) < 0;
+    }
+
+    int fromDay() {
+        return fromDay;
+    }
+
+    int toDay() {
+        return toDay;
+    }
+
+    City city() {
+        return city;
+    }
+
+    City fineCity() {
+        return fineCity;
+    }
+
+    boolean filtersFines() {
+        return fineType != null || fineCity != null;
+    }
+
+    int fineTypeKey() {
+        return fineType == null ? -1 : FineType.keyOf(fineType);
+    }
+
+    boolean filtersNames() {
+        return namePrefix != null;
+    }
+
+    boolean nameMatches(String name) {
+        return name.regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    private Compiled compile() {
+        return new Compiled(fromDay, toDay, city == null ? -1 : city.getId(), filtersFines(), fineTypeKey(),
+                fineCity == null ? -1 : fineCity.getId());
+    }
+
+    private boolean matches(Compiled compiled, Person person) {
+        int day = person.getBirthDay();
+        if (day < compiled.fromDay || day > compiled.toDay) return false;
+        if (compiled.city >= 0 && person.getCity().getId() != compiled.city) return false;
+        if (compiled.fines && !hasFine(compiled, person)) return false;
+        return namePrefix == null || nameMatches(person.getFirstName()) || nameMatches(person.getLastName());
+    }
+
+    private static boolean hasFine(Compiled compiled, Person person) {
+        for (Fine fine : person.getFines()) {
+            if (compiled.fineType >= 0 && fine.getFineType().key() != compiled.fineType) continue;
+            if (compiled.fineCity >= 0 && fine.getCity().getId() != compiled.fineCity) continue;
+            return true;
+        }
+        return false;
+    }
+
+    static final class Matches {
+        private final Predicate<? super Person> sink;
+        private final AtomicLong delivered = new AtomicLong();
+        private volatile boolean stopped;
+
+        Matches(Predicate<? super Person> sink) {
+            this.sink = sink;
+        }
+
+        boolean counting() {
+            return sink == null;
+        }
+
+        boolean stopped() {
+            return stopped;
+        }
+
+        long delivered() {
+            return delivered.get();
+        }
+
+        void count(long matches) {
+            delivered.addAndGet(matches);
+        }
+
+        void deliver(Person person) {
+            synchronized (this) {
+                if (stopped) return;
+                delivered.incrementAndGet();
+                if (!sink.test(person)) stopped = true;
+            }
+        }
+    }
+
+    private record Compiled(int fromDay, int toDay, int city, boolean fines, int fineType, int fineCity) {
+    }
+
+    private final class Scan extends RecursiveAction implements Consumer<Person> {
+        private final Spliterator<Person> persons;
+        private final Compiled compiled;
+        private final Matches matches;
+        private Person current;
+
+        Scan(Spliterator<Person> persons, Compiled compiled, Matches matches) {
+            this.persons = persons;
+            this.compiled = compiled;
+            this.matches = matches;
+        }
+
+        @Override
+        protected void compute() {
+            List<Scan> forks = new ArrayList<>();
+            Spliterator<Person> split;
+            while (persons.estimateSize() > LEAF_SIZE && (split = persons.trySplit()) != null) {
+                Scan fork = new Scan(split, compiled, matches);
+                fork.fork();
+                forks.add(fork);
+            }
+            long counted = 0;
+            while (!matches.stopped() && persons.tryAdvance(this)) {
+                if (!matches(compiled, current)) continue;
+                if (matches.counting()) counted++; else matches.deliver(current);
+            }
+            matches.count(counted);
+            for (int i = forks.size() - 1; i >= 0; i--) {
+                forks.get(i).join();
+            }
+        }
+
+        @Override
+        public void accept(Person person) {
+            current = person;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package db;
+
+import java.util.*;
+import model.*;
+
+public class PersonRepository implements PersonStore {
+    private final Map<String, Person> database = new HashMap<>();
+    private final Map<String, City> cityPool = new HashMap<>();
+    private final Map<Integer, Set<String>> byFineType = new HashMap<>();
+    private final Map<Integer, Set<String>> byCity = new HashMap<>();
+    private final Map<Integer, Set<String>> byFineCity = new HashMap<>();
+    private final NavigableMap<Integer, Set<String>> byBirthDay = new TreeMap<>();
+    private int cityIdCounter = 1;
+
+    public boolean isEmpty() {
+        return database.isEmpty();
+    }
+
+    public int size() {
+        return database.size();
+    }
+
+    public boolean contains(String id) {
+        return database.containsKey(id);
+    }
+
+    public Person findById(String id) {
+        return database.get(id);
+    }
+
+    public Collection<Person> findAll() {
+        return Collections.unmodifiableCollection(database.values());
+    }
+
+    public boolean add(Person person) {
+        if (database.putIfAbsent(person.getId(), person) != null) return false;
+        index(byCity, person.getCity().getId(), person.getId());
+        index(byBirthDay, person.getBirthDay(), person.getId());
+        for (Fine fine : person.getFines()) {
+            indexFine(person, fine);
+        }
+        return true;
+    }
+
+    public void update(Person person) {
+        Person stored = database.get(person.getId());
+        if (stored == null || stored == person) return;
+        stored.setFirstName(person.getFirstName());
+        stored.setLastName(person.getLastName());
+        if (stored.getBirthDay() != person.getBirthDay()) {
+            unindex(byBirthDay, stored.getBirthDay(), stored.getId());
+            stored.setBirthDay(person.getBirthDay());
+            index(byBirthDay, stored.getBirthDay(), stored.getId());
+        }
+        if (!stored.getCity().equals(person.getCity())) moveTo(stored, person.getCity());
+    }
+
+    public void addFine(Person person, Fine fine) {
+        person.addFine(fine);
+        if (database.get(person.getId()) == person) indexFine(person, fine);
+    }
+
+    public boolean removeFines(Person person, String type, City city) {
+        if (!person.removeFines(type, city)) return false;
+        if (!person.hasFineType(type)) unindex(byFineType, FineType.keyOf(type), person.getId());
+        if (!hasFineIn(person, city)) unindex(byFineCity, city.getId(), person.getId());
+        return true;
+    }
+
+    public void clearFines(Person person) {
+        for (Fine fine : person.getFines()) {
+            unindex(byFineType, fine.getFineType().key(), person.getId());
+            unindex(byFineCity, fine.getCity().getId(), person.getId());
+        }
+        person.clearFines();
+    }
+
+    public void moveTo(Person person, City city) {
+        boolean stored = database.get(person.getId()) == person;
+        if (stored) unindex(byCity, person.getCity().getId(), person.getId());
+        person.setCity(city);
+        if (stored) index(byCity, city.getId(), person.getId());
+    }
+
+    public List<Person> findByFineType(String type) {
+        return resolve(byFineType.get(FineType.keyOf(type)));
+    }
+
+    public List<Person> findByCity(City city) {
+        return resolve(byCity.get(city.getId()));
+    }
+
+    public List<Person> findByFineCity(City city) {
+        return resolve(byFineCity.get(city.getId()));
+    }
+
+    public List<Person> findBornBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) return List.of();
+        List<Person> found = new ArrayList<>();
+        for (Set<String> ids : byBirthDay.subMap(fromDay, true, toDay, true).values()) {
+            for (String id : ids) {
+                found.add(database.get(id));
+            }
+        }
+        return found;
+    }
+
+    public List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        Set<String> fined = byFineCity.get(city.getId());
+        if (fined == null || fromDay > toDay) return List.of();
+        Collection<Set<String>> range = byBirthDay.subMap(fromDay, true, toDay, true).values();
+        List<Person> found = new ArrayList<>();
+        if (smallerThan(range, fined.size())) {
+            for (Set<String> ids : range) {
+                for (String id : ids) {
+                    if (fined.contains(id)) found.add(database.get(id));
+                }
+            }
+        } else {
+            for (String id : fined) {
+                Person person = database.get(id);
+                if (person.getBirthDay() >= fromDay && person.getBirthDay() <= toDay) found.add(person);
+            }
+        }
+        return found;
+    }
+
+    public City city(String name) {
+        return cityPool.computeIfAbsent(name.toLowerCase(), k -> new City(cityIdCounter++, name));
+    }
+
+    private void indexFine(Person person, Fine fine) {
+        index(byFineType, fine.getFineType().key(), person.getId());
+        index(byFineCity, fine.getCity().getId(), person.getId());
+    }
+
+    private List<Person> resolve(Set<String> ids) {
+        if (ids == null) return List.of();
+        List<Person> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            found.add(database.get(id));
+        }
+        return found;
+    }
+
+    private static boolean smallerThan(Collection<Set<String>> range, int limit) {
+        long size = 0;
+        for (Set<String> ids : range) {
+            size += ids.size();
+            if (size >= limit) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasFineIn(Person person, City city) {
+        for (Fine fine : person.getFines()) {
+            if (fine.getCity().equals(city)) return true;
+        }
+        return false;
+    }
+
+    private static <K> void index(Map<K, Set<String>> index, K key, String id) {
+        index.computeIfAbsent(key, k -> new HashSet<>()).add(id);
+    }
+
+    private static <K> void unindex(Map<K, Set<String>> index, K key, String id) {
+        Set<String> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) index.remove(key);
+    }
+}
@@ -0,0 +1,84 @@
+package db;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+import model.*;
+
+final class PersonSnapshot {
+    private static final int MAGIC = 0x54465344;
+    private static final int VERSION = 1;
+
+    private PersonSnapshot() {
+    }
+
+    static void write(Path file, Collection<Person> persons) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileOutputStream stream = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(stream, 1 << 16), crc))) {
+            Map<String, Integer> cities = new HashMap<>();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(persons.size());
+            for (Person person : persons) {
+                out.writeUTF(person.getId());
+                out.writeUTF(person.getFirstName());
+                out.writeUTF(person.getLastName());
+                out.writeUTF(person.getBirthDate());
+                writeCity(out, cities, person.getCity());
+                List<Fine> fines = person.getFines();
+                out.writeInt(fines.size());
+                for (Fine fine : fines) {
+                    out.writeUTF(fine.getType());
+                    writeCity(out, cities, fine.getCity());
+                }
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            stream.getChannel().force(true);
+        }
+    }
+
+    static int read(Path file, PersonStore store) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a person snapshot: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            int count = in.readInt();
+            List<City> cities = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Person person = new Person(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), readCity(in, cities, store));
+                int fines = in.readInt();
+                for (int f = 0; f < fines; f++) {
+                    person.addFine(new Fine(in.readUTF(), readCity(in, cities, store)));
+                }
+                store.add(person);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) throw new IOException("Corrupt person snapshot: " + file);
+            return count;
+        }
+    }
+
+    private static void writeCity(DataOutputStream out, Map<String, Integer> cities, City city) throws IOException {
+        Integer code = cities.get(city.getName());
+        if (code != null) {
+            out.writeInt(code);
+            return;
+        }
+        out.writeInt(cities.size());
+        out.writeUTF(city.getName());
+        cities.put(city.getName(), cities.size());
+    }
+
+    private static City readCity(DataInputStream in, List<City> cities, PersonStore store) throws IOException {
+        int code = in.readInt();
+        if (code < cities.size()) return cities.get(code);
+        if (code != cities.size()) throw new IOException("Invalid city reference " + code);
+        City city = store.city(in.readUTF());
+        cities.add(city);
+        return city;
+    }
+}
@@ -0,0 +1,101 @@
+package db;
+
+import java.util.*;
+import java.util.function.Predicate;
+import model.*;
+
+public interface PersonStore {
+    boolean isEmpty();
+
+    int size();
+
+    boolean contains(String id);
+
+    Person findById(String id);
+
+    Collection<Person> findAll();
+
+    boolean add(Person person);
+
+    void update(Person person);
+
+    void addFine(Person person, Fine fine);
+
+    boolean removeFines(Person person, String type, City city);
+
+    void clearFines(Person person);
+
+    void moveTo(Person person, City city);
+
+    List<Person> findByFineType(String type);
+
+    List<Person> findByCity(City city);
+
+    List<Person> findByFineCity(City city);
+
+    City city(String name);
+
+    default List<Person> findBornBetween(int fromDay, int toDay) {
+        List<Person> found = new ArrayList<>();
+        for (Person person : findAll()) {
+            if (person.getBirthDay() >= fromDay && person.getBirthDay() <= toDay) found.add(person);
+        }
+        return found;
+    }
+
+    default List<Person> findBornBetweenWithFineIn(int fromDay, int toDay, City city) {
+        List<Person> found = new ArrayList<>();
+        for (Person person : findAll()) {
+            if (person.getBirthDay() < fromDay || person.getBirthDay() > toDay) continue;
+            for (Fine fine : person.getFines()) {
+                if (fine.getCity().equals(city)) {
+                    found.add(person);
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    default long query(PersonQuery query, Predicate<? super Person> sink) {
+        return query.scan(findAll(), sink);
+    }
+
+    default int importBatch(List<Person> persons) {
+        int added = 0;
+        for (Person person : persons) {
+            if (add(person)) {
+                added++;
+                continue;
+            }
+            Person stored = findById(person.getId());
+            for (Fine fine : person.getFines()) {
+                addFine(stored, fine);
+            }
+        }
+        return added;
+    }
+
+    default List<Person> findPage(String afterId, int limit) {
+        return firstAfter(findAll(), afterId, limit);
+    }
+
+    static List<Person> firstAfter(Iterable<Person> persons, String afterId, int limit) {
+        if (limit <= 0) return List.of();
+        Comparator<Person> byId = Comparator.comparing(Person::getId);
+        PriorityQueue<Person> page = new PriorityQueue<>(limit + 1, byId.reversed());
+        for (Person person : persons) {
+            String id = person.getId();
+            if (afterId != null && id.compareTo(afterId) <= 0) continue;
+            if (page.size() < limit) {
+                page.add(person);
+            } else if (id.compareTo(page.peek().getId()) < 0) {
+                page.poll();
+                page.add(person);
+            }
+        }
+        List<Person> sorted = new ArrayList<>(page);
+        sorted.sort(byId);
+        return sorted;
+    }
+}
@@ -0,0 +1,77 @@
+package db;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import model.Person;
+
+public final class PersonWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+    private final String separator = System.lineSeparator();
+    private char[] chars = new char[256];
+    private CharBuffer pending = CharBuffer.wrap(chars);
+    private long records;
+
+    public PersonWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public void write(Person person) throws IOException {
+        line.setLength(0);
+        person.appendTo(line).append(separator);
+        int length = line.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            pending = CharBuffer.wrap(chars);
+        }
+        line.getChars(0, length, chars, 0);
+        pending.clear().limit(length);
+        while (true) {
+            CoderResult result = encoder.encode(pending, bytes, false);
+            if (result.isUnderflow()) break;
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                result.throwException();
+            }
+        }
+        records++;
+    }
+
+    public long records() {
+        return records;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
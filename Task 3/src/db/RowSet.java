@@ -0,0 +1,89 @@
+package db;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+final class RowSet {
+    private static final int EMPTY = -1;
+
+    private int[] slots = emptySlots(4);
+    private int size;
+
+    boolean add(int row) {
+        if ((size + 1) * 4 > slots.length * 3) rehash(slots.length * 2);
+        int mask = slots.length - 1;
+        for (int slot = slot(row, mask); ; slot = (slot + 1) & mask) {
+            if (slots[slot] == row) return false;
+            if (slots[slot] == EMPTY) {
+                slots[slot] = row;
+                size++;
+                return true;
+            }
+        }
+    }
+
+    boolean remove(int row) {
+        int mask = slots.length - 1;
+        int hole = slot(row, mask);
+        while (slots[hole] != row) {
+            if (slots[hole] == EMPTY) return false;
+            hole = (hole + 1) & mask;
+        }
+        for (int next = (hole + 1) & mask; slots[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(slots[next], mask);
+            boolean movable = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+            if (movable) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    boolean contains(int row) {
+        int mask = slots.length - 1;
+        for (int slot = slot(row, mask); ; slot = (slot + 1) & mask) {
+            if (slots[slot] == row) return true;
+            if (slots[slot] == EMPTY) return false;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void forEach(IntConsumer consumer) {
+        for (int row : slots) {
+            if (row != EMPTY) consumer.accept(row);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = emptySlots(capacity);
+        int mask = capacity - 1;
+        for (int row : old) {
+            if (row == EMPTY) continue;
+            int slot = slot(row, mask);
+            while (slots[slot] != EMPTY) slot = (slot + 1) & mask;
+            slots[slot] = row;
+        }
+    }
+
+    private static int[] emptySlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        return slots;
+    }
+
+    private static int slot(int row, int mask) {
+        int mixed = row * 0x9E3779B9;
+        return (mixed ^ (mixed >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,77 @@
+package model;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+public final class BirthDate {
+    public static final int MIN_YEAR = 1900;
+
+    private BirthDate() {
+    }
+
+    public static int parse(String date) {
+        if (date.length() != 10 || date.charAt(2) != '.' || date.charAt(5) != '.') {
+            throw new IllegalArgumentException("Date must be dd.mm.yyyy: " + date);
+        }
+        int day = digits(date, 0, 2);
+        int month = digits(date, 3, 5);
+        int year = digits(date, 6, 10);
+        if (day < 0 || month < 0 || year < 0) throw new IllegalArgumentException("Date must be dd.mm.yyyy: " + date);
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("No such date: " + date);
+        }
+    }
+
+    public static int parseBirthDate(String date) {
+        int epochDay = parse(date);
+        if (yearOf(epochDay) < MIN_YEAR) throw new IllegalArgumentException("Birth date before " + MIN_YEAR + ": " + date);
+        if (epochDay > LocalDate.now().toEpochDay()) throw new IllegalArgumentException("Birth date in the future: " + date);
+        return epochDay;
+    }
+
+    public static String format(int epochDay) {
+        return appendTo(new StringBuilder(10), epochDay).toString();
+    }
+
+    public static StringBuilder appendTo(StringBuilder out, int epochDay) {
+        int civil = civil(epochDay);
+        int day = civil % 100;
+        int month = civil / 100 % 100;
+        int year = civil / 10000;
+        out.append((char) ('0' + day / 10)).append((char) ('0' + day % 10)).append('.');
+        out.append((char) ('0' + month / 10)).append((char) ('0' + month % 10)).append('.');
+        for (int divisor = 1000; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + year / divisor % 10));
+        }
+        return out;
+    }
+
+    public static int yearOf(int epochDay) {
+        return civil(epochDay) / 10000;
+    }
+
+    private static int civil(int epochDay) {
+        long shifted = epochDay + 719468L;
+        long era = Math.floorDiv(shifted, 146097);
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 10000 + month * 100 + day);
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
\ No newline at end of file
@@ -1,7 +1,5 @@
 package model;
 
-import java.util.Objects;
-
 public class City {
     private final int id;
     private final String name;
@@ -24,6 +22,6 @@ public class City {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return id;
     }
 }
\ No newline at end of file
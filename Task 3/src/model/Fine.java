@@ -1,19 +1,24 @@
 package model;
 
 public class Fine {
-    private final String type;
+    private final FineType type;
     private final City city;
 
     public Fine(String type, City city) {
-        this.type = type.trim();
+        this(FineType.of(type), city);
+    }
+
+    public Fine(FineType type, City city) {
+        this.type = type;
         this.city = city;
     }
 
-    public String getType() { return type; }
+    public String getType() { return type.name(); }
+    public FineType getFineType() { return type; }
     public City getCity() { return city; }
 
     @Override
     public String toString() {
-        return String.format("%s (%s)", type, city.getName());
+        return type.name() + " (" + city.getName() + ")";
     }
 }
\ No newline at end of file
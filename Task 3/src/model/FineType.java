@@ -0,0 +1,54 @@
+package model;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class FineType {
+    private static final ConcurrentMap<String, FineType> byName = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Integer> keys = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextCode = new AtomicInteger();
+    private static final AtomicInteger nextKey = new AtomicInteger();
+
+    private final int code;
+    private final int key;
+    private final String name;
+
+    private FineType(int code, int key, String name) {
+        this.code = code;
+        this.key = key;
+        this.name = name;
+    }
+
+    public static FineType of(String name) {
+        FineType type = byName.get(name);
+        if (type != null) return type;
+        return byName.computeIfAbsent(name.trim(), n -> new FineType(nextCode.getAndIncrement(),
+                keys.computeIfAbsent(normalize(n), k -> nextKey.getAndIncrement()), n));
+    }
+
+    public static int keyOf(String name) {
+        FineType type = byName.get(name);
+        if (type != null) return type.key;
+        Integer key = keys.get(normalize(name));
+        return key == null ? -1 : key;
+    }
+
+    public int code() { return code; }
+    public int key() { return key; }
+    public String name() { return name; }
+
+    public boolean matches(FineType other) {
+        return key == other.key;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -1,36 +1,55 @@
 package model;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class Person {
     private final String id;
     private String firstName;
     private String lastName;
-    private String birthDate;
+    private int birthDay;
     private City city;
     private final List<Fine> fines = new ArrayList<>();
 
     public Person(String id, String firstName, String lastName, String birthDate, City city) {
+        this(id, firstName, lastName, BirthDate.parseBirthDate(birthDate), city);
+    }
+
+    public Person(String id, String firstName, String lastName, int birthDay, City city) {
         this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.birthDate = birthDate;
+        this.birthDay = birthDay;
         this.city = city;
     }
 
+    public Person(Person other) {
+        this(other.id, other.firstName, other.lastName, other.birthDay, other.city);
+        fines.addAll(other.fines);
+    }
+
     public boolean hasFineType(String type) {
-        return fines.stream().anyMatch(f -> f.getType().equalsIgnoreCase(type));
+        int key = FineType.keyOf(type);
+        if (key < 0) return false;
+        for (Fine fine : fines) {
+            if (fine.getFineType().key() == key) return true;
+        }
+        return false;
     }
 
     public boolean removeFines(String type, City city) {
-        return fines.removeIf(f -> f.getType().equalsIgnoreCase(type) && f.getCity().equals(city));
+        int key = FineType.keyOf(type);
+        if (key < 0) return false;
+        return fines.removeIf(f -> f.getFineType().key() == key && f.getCity().getId() == city.getId());
     }
 
     public void addFine(Fine fine) {
         fines.add(fine);
     }
 
+    public void clearFines() {
+        fines.clear();
+    }
+
     public List<Fine> getFines() {
         return Collections.unmodifiableList(fines);
     }
@@ -40,17 +59,31 @@ public class Person {
     public void setFirstName(String firstName) { this.firstName = firstName; }
     public String getLastName() { return lastName; }
     public void setLastName(String lastName) { this.lastName = lastName; }
-    public String getBirthDate() { return birthDate; }
-    public void setBirthDate(String birthDate) { this.birthDate = birthDate; }
+    public String getBirthDate() { return BirthDate.format(birthDay); }
+    public void setBirthDate(String birthDate) { this.birthDay = BirthDate.parseBirthDate(birthDate); }
+    public int getBirthDay() { return birthDay; }
+    public void setBirthDay(int birthDay) { this.birthDay = birthDay; }
     public City getCity() { return city; }
     public void setCity(City city) { this.city = city; }
 
+    public StringBuilder appendTo(StringBuilder out) {
+        out.append("ID: ").append(id)
+                .append(", Name: ").append(firstName).append(' ').append(lastName)
+                .append(", Born: ");
+        BirthDate.appendTo(out, birthDay)
+                .append(", City: ").append(city.getName())
+                .append(", Fines: [");
+        if (fines.isEmpty()) out.append("No fines");
+        for (int i = 0; i < fines.size(); i++) {
+            if (i > 0) out.append("; ");
+            Fine fine = fines.get(i);
+            out.append(fine.getFineType().name()).append(" (").append(fine.getCity().getName()).append(')');
+        }
+        return out.append(']');
+    }
+
     @Override
     public String toString() {
-        String finesStr = fines.isEmpty() ? "No fines" : fines.stream()
-                .map(Fine::toString)
-                .collect(Collectors.joining("; "));
-        return String.format("ID: %s, Name: %s %s, Born: %s, City: %s, Fines: [%s]",
-                id, firstName, lastName, birthDate, city.getName(), finesStr);
+        return appendTo(new StringBuilder(128)).toString();
     }
 }
\ No newline at end of file
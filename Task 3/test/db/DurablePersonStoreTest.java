@@ -0,0 +1,204 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DurablePersonStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysCommittedMutationsAfterReopen() throws IOException {
+        try (DurablePersonStore store = open(directory)) {
+            store.add(person(store, 1));
+            store.add(person(store, 2));
+            store.addFine(store.findById(id(1)), new Fine("Speeding", store.city("Lviv")));
+            store.moveTo(store.findById(id(2)), store.city("Odesa"));
+            Person renamed = new Person(store.findById(id(1)));
+            renamed.setLastName("Shevchenko");
+            store.update(renamed);
+        }
+
+        try (DurablePersonStore store = open(directory)) {
+            assertEquals(2, store.size());
+            assertEquals(5, store.replayedMutations());
+            Person first = store.findById(id(1));
+            assertEquals("Shevchenko", first.getLastName());
+            assertEquals(1, first.getFines().size());
+            assertEquals("Lviv", first.getFines().get(0).getCity().getName());
+            assertEquals("Odesa", store.findById(id(2)).getCity().getName());
+        }
+    }
+
+    @Test
+    void dropsTornTailAndKeepsAppending() throws IOException {
+        long size;
+        try (DurablePersonStore store = open(directory)) {
+            for (int n = 1; n <= 5; n++) {
+                store.add(person(store, n));
+            }
+            size = store.logSize();
+        }
+        truncate(log(directory), size - 3);
+
+        try (DurablePersonStore store = open(directory)) {
+            assertEquals(4, store.size());
+            assertFalse(store.contains(id(5)));
+            assertTrue(store.logSize() < size - 3);
+            assertEquals(store.logSize(), Files.size(log(directory)));
+            store.add(person(store, 6));
+        }
+
+        try (DurablePersonStore store = open(directory)) {
+            assertEquals(5, store.size());
+            assertTrue(store.contains(id(4)));
+            assertTrue(store.contains(id(6)));
+        }
+    }
+
+    @Test
+    void stopsReplayAtRecordWithBadChecksum() throws IOException {
+        long[] ends = new long[3];
+        try (DurablePersonStore store = open(directory)) {
+            for (int n = 1; n <= 3; n++) {
+                store.add(person(store, n));
+                ends[n - 1] = store.logSize();
+            }
+        }
+        flipByte(log(directory), ends[1] - 1);
+
+        try (DurablePersonStore store = open(directory)) {
+            assertEquals(1, store.size());
+            assertTrue(store.contains(id(1)));
+            assertEquals(ends[0], Files.size(log(directory)));
+        }
+    }
+
+    @Test
+    void recoversSnapshotAndNewLogAfterCheckpointThenCrash() throws IOException {
+        Path crashed = directory.resolve("crashed");
+        try (DurablePersonStore store = open(directory.resolve("live"))) {
+            store.add(person(store, 1));
+            store.add(person(store, 2));
+            store.checkpoint();
+            store.add(person(store, 3));
+            store.addFine(store.findById(id(1)), new Fine("Parking", store.city("Kyiv")));
+            copyFiles(directory.resolve("live"), crashed);
+        }
+
+        try (DurablePersonStore store = open(crashed)) {
+            assertEquals(2, store.recoveredPersons());
+            assertEquals(2, store.replayedMutations());
+            assertEquals(3, store.size());
+            assertEquals(1, store.findById(id(1)).getFines().size());
+            assertEquals(List.of("CURRENT", "person-1.log", "snapshot-1.bin"), fileNames(crashed));
+        }
+    }
+
+    @Test
+    void ignoresUnfinishedCheckpoint() throws IOException {
+        try (DurablePersonStore store = open(directory)) {
+            store.add(person(store, 1));
+            store.checkpoint();
+            store.add(person(store, 2));
+        }
+        Files.write(directory.resolve("snapshot-2.bin"), new byte[] {1, 2, 3});
+        Files.createFile(directory.resolve("person-2.log"));
+
+        try (DurablePersonStore store = open(directory)) {
+            assertEquals(2, store.size());
+            assertEquals(List.of("CURRENT", "person-1.log", "snapshot-1.bin"), fileNames(directory));
+        }
+    }
+
+    @Test
+    void rejectsCorruptSnapshot() throws IOException {
+        try (DurablePersonStore store = open(directory)) {
+            store.add(person(store, 1));
+            store.add(person(store, 2));
+            store.checkpoint();
+        }
+        Path snapshot = directory.resolve("snapshot-1.bin");
+        flipByte(snapshot, Files.size(snapshot) / 2);
+
+        assertThrows(IOException.class, () -> open(directory));
+    }
+
+    @Test
+    void becomesReadOnlyAfterFailedAppend() throws IOException {
+        DurablePersonStore store = open(directory);
+        store.add(person(store, 1));
+        store.close();
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> store.add(person(store, 2)));
+        assertInstanceOf(IOException.class, failure.getCause());
+        assertFalse(store.contains(id(2)));
+        Person existing = store.findById(id(1));
+        assertThrows(IllegalStateException.class, () -> store.clearFines(existing));
+        assertThrows(IllegalStateException.class, () -> store.importBatch(List.of(person(store, 3))));
+        assertThrows(IllegalStateException.class, store::checkpoint);
+        assertEquals(1, store.size());
+
+        try (DurablePersonStore reopened = open(directory)) {
+            assertEquals(1, reopened.size());
+            assertTrue(reopened.contains(id(1)));
+        }
+    }
+
+    private static DurablePersonStore open(Path directory) throws IOException {
+        return DurablePersonStore.open(directory, new ConcurrentPersonStore(), Durability.SYNC);
+    }
+
+    private static Person person(PersonStore store, int n) {
+        return new Person(id(n), "Ivan", "Franko", "27.08.1956", store.city("Kyiv"));
+    }
+
+    private static String id(int n) {
+        return String.format("%010d", n);
+    }
+
+    private static Path log(Path directory) throws IOException {
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, "person-*.log")) {
+            return logs.iterator().next();
+        }
+    }
+
+    private static List<String> fileNames(Path directory) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                names.add(file.getFileName().toString());
+            }
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private static void copyFiles(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(from)) {
+            for (Path file : files) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) position] ^= 0x5A;
+        Files.write(file, bytes);
+    }
+}
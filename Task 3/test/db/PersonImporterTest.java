@@ -0,0 +1,88 @@
+package db;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PersonImporterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergesRowsSplitAcrossChunksAfterByteOrderMark() throws Exception {
+        Path file = directory.resolve("persons.csv");
+        int persons = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write('\uFEFF');
+            out.write("id,firstName,lastName,birthDate,city,fineType,fineCity\r\n");
+            while (Files.size(file) < PersonImporter.CHUNK_SIZE * 5L / 4) {
+                persons++;
+                for (int fine = 0; fine < 3; fine++) {
+                    out.write(String.format("%010d,Taras,Shevchenko,09.03.1914,Kyiv,Speeding,Lviv%n", persons));
+                }
+                if (persons % 1000 == 0) out.flush();
+            }
+        }
+
+        PersonStore store = new ConcurrentPersonStore();
+        PersonImporter.Report report = new PersonImporter(store, 3).importFile(file);
+
+        assertEquals(0, report.rejected());
+        assertEquals(persons * 3L, report.rows());
+        assertEquals(persons, report.persons());
+        assertEquals(persons * 3L, report.fines());
+        assertEquals(persons, store.size());
+        for (Person person : store.findAll()) {
+            assertEquals(3, person.getFines().size(), person.getId());
+        }
+    }
+
+    @Test
+    void readsQuotedCsvFields() throws Exception {
+        Path file = directory.resolve("persons.csv");
+        Files.writeString(file, String.join("\n",
+                "\"0000000001\",\"Lesya\",\"Ukrainka\",25.02.1971,\"Kyiv\",\"Parking, \"\"blue\"\" zone\",\"Lviv\"",
+                "0000000002,Ivan,Franko,27.08.1956,Lviv,\"Speeding",
+                "0000000003,Ivan,Franko,27.08.1956,\"Lviv\"x,Speeding,Lviv",
+                ""));
+
+        PersonStore store = new ConcurrentPersonStore();
+        PersonImporter.Report report = new PersonImporter(store, 1).importFile(file);
+
+        assertEquals(3, report.rows());
+        assertEquals(2, report.rejected());
+        assertEquals(2, report.rejectedSamples().size());
+        Person person = store.findById("0000000001");
+        assertEquals("Ukrainka", person.getLastName());
+        assertEquals("Parking, \"blue\" zone", person.getFines().get(0).getType());
+        assertEquals("Lviv", person.getFines().get(0).getCity().getName());
+    }
+
+    @Test
+    void decodesNdjsonEscapes() throws Exception {
+        Path file = directory.resolve("persons.ndjson");
+        Files.writeString(file, String.join("\n",
+                "{\"id\":\"0000000001\",\"firstName\":\"Lesya\",\"lastName\":\"Ukrainka\",\"birthDate\":\"25.02.1971\",\"city\":\"Kyiv\","
+                        + "\"fines\":[{\"type\":\"Red \\\"light\\\"\\\\\\u0041\\/B\\tC\",\"city\":\"Odesa\",\"amount\":{\"uah\":[1,2]}}]}",
+                "{\"id\":0000000002, \"firstName\":\"Ivan\",\"lastName\":\"Franko\",\"birthDate\":\"27.08.1956\",\"city\":\"Lviv\",\"note\":\"a\\u005Cb\"}",
+                "{\"id\":\"0000000003\",\"firstName\":\"Bad\\q\",\"lastName\":\"Escape\",\"birthDate\":\"27.08.1956\",\"city\":\"Lviv\"}",
+                ""));
+
+        PersonStore store = new ConcurrentPersonStore();
+        PersonImporter.Report report = new PersonImporter(store, 1).importFile(file);
+
+        assertEquals(3, report.rows());
+        assertEquals(1, report.rejected());
+        assertEquals("Red \"light\"\\A/B\tC", store.findById("0000000001").getFines().get(0).getType());
+        assertEquals("Odesa", store.findById("0000000001").getFines().get(0).getCity().getName());
+        assertEquals("Franko", store.findById("0000000002").getLastName());
+        assertFalse(store.contains("0000000003"));
+    }
+}
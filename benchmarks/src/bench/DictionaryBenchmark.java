@@ -0,0 +1,84 @@
+package bench;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import dictionary.DictionaryService;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DictionaryBenchmark {
+    @Param({"1000000"})
+    private int words;
+
+    private DictionaryService dictionary;
+    private String[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        dictionary = new DictionaryService();
+        keys = new String[words];
+        for (int i = 0; i < words; i++) {
+            keys[i] = "word" + i;
+            dictionary.addWord(keys[i]);
+            dictionary.addTranslation(keys[i], "wort" + i);
+            for (int lookups = random.nextInt(8); lookups > 0; lookups--) {
+                dictionary.lookup(keys[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> topWordsMostPopular() {
+        return dictionary.topWords(true, 10);
+    }
+
+    @Benchmark
+    public List<String> topWordsLeastPopular() {
+        return dictionary.topWords(false, 10);
+    }
+
+    @Benchmark
+    public List<String> trendingWords() {
+        return dictionary.trendingWords(10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Set<String> lookup() {
+        return dictionary.lookup(nextKey());
+    }
+
+    @Benchmark
+    public List<String> prefix() {
+        return dictionary.wordsWithPrefix(nextKey().substring(0, 6), 10);
+    }
+
+    @Benchmark
+    public List<String> similarOneTypo() {
+        return dictionary.similarWords(nextKey(), 1, 10);
+    }
+
+    @Benchmark
+    public List<String> similarTwoTypos() {
+        return dictionary.similarWords(nextKey(), 2, 10);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Set<String> reverseLookup() {
+        return dictionary.wordsForTranslation("wort" + nextKey().substring(4));
+    }
+
+    private String nextKey() {
+        String word = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return word;
+    }
+}
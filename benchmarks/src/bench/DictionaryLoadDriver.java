@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import dictionary.DictionaryService;
+
+public class DictionaryLoadDriver {
+    public static void main(String[] args) throws Exception {
+        int words = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        DictionaryService dictionary = new DictionaryService();
+        String[] keys = new String[words];
+        for (int i = 0; i < words; i++) {
+            keys[i] = "word" + i;
+            dictionary.addWord(keys[i]);
+            dictionary.addTranslation(keys[i], "wort" + i);
+        }
+
+        System.out.printf("%d words, %s threads, %d s per step%n", words, threadKind(), seconds);
+        System.out.printf(Locale.ROOT, "warm-up with %d threads: %.0f lookups/s (discarded)%n", maxThreads, run(dictionary, keys, maxThreads, seconds));
+        System.out.println("threads,lookupsPerSecond,speedup");
+        double single = 0;
+        for (int threads : threadCounts(maxThreads)) {
+            double rate = run(dictionary, keys, threads, seconds);
+            if (threads == 1) single = rate;
+            System.out.printf(Locale.ROOT, "%d,%.0f,%.2f%n", threads, rate, rate / single);
+        }
+    }
+
+    private static double run(DictionaryService dictionary, String[] keys, int threads, long seconds) throws Exception {
+        LongAdder lookups = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong deadline = new AtomicLong();
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                workers.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    start.await();
+                    long done = 0;
+                    long stop = deadline.get();
+                    while ((done & 1023) != 0 || System.nanoTime() < stop) {
+                        dictionary.lookup(keys[random.nextInt(keys.length)]);
+                        done++;
+                    }
+                    lookups.add(done);
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            deadline.set(began + TimeUnit.SECONDS.toNanos(seconds));
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            if (lookups.sum() == 0) throw new IllegalStateException("No lookups completed with " + threads + " threads");
+            return lookups.sum() / ((System.nanoTime() - began) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Integer> threadCounts(int maxThreads) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static String threadKind() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return "virtual";
+        } catch (NoSuchMethodException e) {
+            return "platform";
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import simulation.*;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DockSimulationBenchmark {
+    @Param({"3"})
+    private double passengerInterval;
+
+    @Param({"5"})
+    private double boatInterval;
+
+    @Param({"20"})
+    private int maxPassengers;
+
+    private DockParameters parameters;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        parameters = new DockParameters(passengerInterval, boatInterval, maxPassengers, true);
+    }
+
+    @Benchmark
+    public DayResult simulateDay() {
+        return DockSimulator.simulateDay(parameters, new SplittableRandom(seed++), null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public IntervalSearch.Result findSufficientBoatInterval() {
+        return new IntervalSearch(passengerInterval, maxPassengers, true, seed++).find();
+    }
+}
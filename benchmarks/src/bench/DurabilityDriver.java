@@ -0,0 +1,88 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import db.Durability;
+import db.DurablePersonStore;
+import db.PersonStore;
+import model.*;
+
+public class DurabilityDriver {
+    public static void main(String[] args) throws Exception {
+        String store = args.length > 0 ? args[0] : "hash";
+        int mutations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        System.out.println("durability,threads,mutations,mutationsPerSecond,syncs,logRecoveryMs,snapshotRecoveryMs,persons");
+        for (Durability durability : Durability.values()) {
+            Path directory = Files.createTempDirectory("durability-");
+            try {
+                DurablePersonStore database = DurablePersonStore.open(directory, TaxFinesBenchmark.create(store, mutations), durability);
+                long started = System.nanoTime();
+                write(database, mutations, threads);
+                double seconds = (System.nanoTime() - started) / 1e9;
+                long syncs = database.syncs();
+                database.close();
+
+                database = DurablePersonStore.open(directory, TaxFinesBenchmark.create(store, mutations), durability);
+                double logRecovery = database.recoveryNanos() / 1e6;
+                database.checkpoint();
+                database.close();
+
+                database = DurablePersonStore.open(directory, TaxFinesBenchmark.create(store, mutations), durability);
+                double snapshotRecovery = database.recoveryNanos() / 1e6;
+                int persons = database.size();
+                database.close();
+
+                System.out.printf("%s,%d,%d,%.0f,%d,%.1f,%.1f,%d%n", durability, threads, mutations, mutations / seconds,
+                        syncs, logRecovery, snapshotRecovery, persons);
+            } finally {
+                delete(directory);
+            }
+        }
+    }
+
+    private static void write(PersonStore database, int mutations, int threads) throws InterruptedException {
+        City[] cities = new City[TaxFinesBenchmark.CITIES];
+        for (int i = 0; i < cities.length; i++) {
+            cities[i] = database.city(TaxFinesBenchmark.cityName(i));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                try {
+                    SplittableRandom random = new SplittableRandom(thread);
+                    Person person = null;
+                    for (int i = thread; i < mutations; i += threads) {
+                        if (person == null || random.nextInt(3) == 0) {
+                            person = new Person(String.format("%010d", i), "Ivan", "Melnyk", "01.01.1990", cities[random.nextInt(cities.length)]);
+                            database.add(person);
+                        } else {
+                            String type = TaxFinesBenchmark.FINE_TYPES[random.nextInt(TaxFinesBenchmark.FINE_TYPES.length)];
+                            database.addFine(person, new Fine(type, cities[random.nextInt(cities.length)]));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.DAYS);
+        if (failure.get() != null) throw new IllegalStateException("Writer failed", failure.get());
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,50 @@
+package bench;
+
+import java.util.SplittableRandom;
+import db.CachingPersonStore;
+import db.PersonStore;
+import model.*;
+
+public class PersonCacheDriver {
+    private static final int KEYS = 1 << 20;
+
+    public static void main(String[] args) {
+        String store = args.length > 0 ? args[0] : "columnar";
+        int persons = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int lookups = args.length > 3 ? Integer.parseInt(args[3]) : 10_000_000;
+
+        PersonStore database = TaxFinesBenchmark.create(store, persons);
+        SplittableRandom random = new SplittableRandom(42);
+        TaxFinesBenchmark.populate(database, persons, random);
+        String[] keys = new String[KEYS];
+        double logRange = Math.log(persons + 1.0);
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = String.format("%010d", (int) Math.exp(random.nextDouble() * logRange) - 1);
+        }
+        CachingPersonStore cache = new CachingPersonStore(database, capacity);
+        City city = database.city(TaxFinesBenchmark.cityName(3));
+
+        System.out.println("store,persons,capacity,reader,nanosPerLookup,hitRate,evictions");
+        for (int round = 0; round < 2; round++) {
+            double direct = run(database, keys, lookups, city);
+            double cached = run(cache, keys, lookups, city);
+            CachingPersonStore.Stats stats = cache.stats();
+            System.out.printf("%s,%d,%d,direct,%.1f,,%n", store, persons, capacity, direct);
+            System.out.printf("%s,%d,%d,cached,%.1f,%.3f,%d%n", store, persons, capacity, cached, stats.hitRate(), stats.evictions());
+        }
+    }
+
+    private static double run(PersonStore database, String[] keys, int lookups, City city) {
+        long fines = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            Person person = database.findById(keys[i & (KEYS - 1)]);
+            if (i % 1000 == 0) database.addFine(person, new Fine("parking", city));
+            fines += person.getFines().size();
+        }
+        long nanos = System.nanoTime() - started;
+        if (fines < 0) System.out.println(fines);
+        return (double) nanos / lookups;
+    }
+}
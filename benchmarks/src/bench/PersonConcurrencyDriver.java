@@ -0,0 +1,192 @@
+package bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import db.ConcurrentPersonStore;
+import db.PersonStore;
+import model.*;
+
+public class PersonConcurrencyDriver {
+    private static final int TOWNS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        int persons = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seconds = args.length > 2 ? Long.parseLong(args[2]) : 5;
+
+        ConcurrentPersonStore database = new ConcurrentPersonStore();
+        TaxFinesBenchmark.populate(database, persons, new SplittableRandom(42));
+        City[] cities = new City[TaxFinesBenchmark.CITIES];
+        for (int i = 0; i < cities.length; i++) {
+            cities[i] = database.city(TaxFinesBenchmark.cityName(i));
+        }
+        long fines = countFines(database);
+        checkCityAllocation(database, Math.max(maxThreads, 4) * 4);
+
+        System.out.printf("%d persons, %s threads, %d s per step%n", persons, threadKind(), seconds);
+        System.out.println("threads,operationsPerSecond,speedup");
+        LongAdder addedFines = new LongAdder();
+        LongAdder tornReads = new LongAdder();
+        double single = 0;
+        for (int threads : threadCounts(maxThreads)) {
+            double rate = run(database, cities, persons, threads, seconds, addedFines, tornReads);
+            if (threads == 1) single = rate;
+            System.out.printf(Locale.ROOT, "%d,%.0f,%.2f%n", threads, rate, rate / single);
+        }
+
+        long expectedFines = fines + addedFines.sum();
+        long foundFines = countFines(database);
+        int indexErrors = checkIndexes(database, cities);
+        System.out.printf("torn reads %d, fines expected %d found %d, index errors %d%n",
+                tornReads.sum(), expectedFines, foundFines, indexErrors);
+        if (tornReads.sum() != 0 || expectedFines != foundFines || indexErrors != 0) {
+            throw new IllegalStateException("Concurrent history is not linearizable");
+        }
+    }
+
+    private static double run(PersonStore database, City[] cities, int persons, int threads, long seconds,
+                              LongAdder addedFines, LongAdder tornReads) throws Exception {
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds) + TimeUnit.MILLISECONDS.toNanos(100);
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                workers.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    start.await();
+                    long done = 0;
+                    while ((done & 255) != 0 || System.nanoTime() < deadline) {
+                        Person person = database.findById(String.format("%010d", random.nextInt(persons)));
+                        int operation = random.nextInt(10);
+                        if (operation == 0) {
+                            int version = random.nextInt(1_000_000);
+                            person.setFirstName("F" + version);
+                            person.setLastName("L" + version);
+                            person.setCity(cities[version % cities.length]);
+                            database.update(person);
+                        } else if (operation == 1) {
+                            String type = TaxFinesBenchmark.FINE_TYPES[random.nextInt(TaxFinesBenchmark.FINE_TYPES.length)];
+                            database.addFine(person, new Fine(type, cities[random.nextInt(cities.length)]));
+                            addedFines.increment();
+                        } else if (torn(person, cities)) {
+                            tornReads.increment();
+                        }
+                        done++;
+                    }
+                    operations.add(done);
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            return operations.sum() / ((System.nanoTime() - began) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean torn(Person person, City[] cities) {
+        String first = person.getFirstName();
+        if (!first.startsWith("F")) return false;
+        String version = first.substring(1);
+        return !person.getLastName().equals("L" + version)
+                || !person.getCity().equals(cities[Integer.parseInt(version) % cities.length]);
+    }
+
+    private static void checkCityAllocation(PersonStore database, int threads) throws Exception {
+        ExecutorService executor = newExecutor();
+        try {
+            List<Future<int[]>> callers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 7;
+                callers.add(executor.submit(() -> {
+                    int[] ids = new int[TOWNS];
+                    for (int i = 0; i < TOWNS; i++) {
+                        int town = (i + offset) % TOWNS;
+                        ids[town] = database.city("Town-" + town).getId();
+                    }
+                    return ids;
+                }));
+            }
+            int[] expected = callers.get(0).get();
+            for (Future<int[]> caller : callers) {
+                if (!Arrays.equals(caller.get(), expected)) throw new IllegalStateException("Threads got different ids for one city");
+            }
+            int[] sorted = expected.clone();
+            Arrays.sort(sorted);
+            for (int i = 1; i < sorted.length; i++) {
+                if (sorted[i] != sorted[i - 1] + 1) throw new IllegalStateException("City ids are not unique and dense");
+            }
+            System.out.printf("%d threads allocated %d city ids %d..%d%n", threads, TOWNS, sorted[0], sorted[TOWNS - 1]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long countFines(PersonStore database) {
+        long fines = 0;
+        for (Person person : database.findAll()) {
+            fines += person.getFines().size();
+        }
+        return fines;
+    }
+
+    private static int checkIndexes(PersonStore database, City[] cities) {
+        Map<Integer, Integer> byCity = new HashMap<>();
+        Map<String, Integer> byFineType = new HashMap<>();
+        Map<Integer, Integer> byFineCity = new HashMap<>();
+        for (Person person : database.findAll()) {
+            byCity.merge(person.getCity().getId(), 1, Integer::sum);
+            Set<String> types = new HashSet<>();
+            Set<Integer> fineCities = new HashSet<>();
+            for (Fine fine : person.getFines()) {
+                types.add(fine.getType());
+                fineCities.add(fine.getCity().getId());
+            }
+            types.forEach(type -> byFineType.merge(type, 1, Integer::sum));
+            fineCities.forEach(city -> byFineCity.merge(city, 1, Integer::sum));
+        }
+        int errors = 0;
+        for (City city : cities) {
+            if (database.findByCity(city).size() != byCity.getOrDefault(city.getId(), 0)) errors++;
+            if (database.findByFineCity(city).size() != byFineCity.getOrDefault(city.getId(), 0)) errors++;
+        }
+        for (String type : TaxFinesBenchmark.FINE_TYPES) {
+            if (database.findByFineType(type).size() != byFineType.getOrDefault(type, 0)) errors++;
+        }
+        return errors;
+    }
+
+    private static List<Integer> threadCounts(int maxThreads) {
+        List<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static String threadKind() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return "virtual";
+        } catch (NoSuchMethodException e) {
+            return "platform";
+        }
+    }
+}
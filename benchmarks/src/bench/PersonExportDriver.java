@@ -0,0 +1,57 @@
+package bench;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.SplittableRandom;
+import db.PersonStore;
+import db.PersonWriter;
+import model.Person;
+
+public class PersonExportDriver {
+    public static void main(String[] args) throws IOException {
+        String store = args.length > 0 ? args[0] : "columnar";
+        int persons = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        PersonStore database = TaxFinesBenchmark.create(store, persons);
+        TaxFinesBenchmark.populate(database, persons, new SplittableRandom(42));
+        Path file = Files.createTempFile("persons-", ".txt");
+        try {
+            System.out.println("writer,round,records,seconds,recordsPerSecond,megabytes,allocatedBytesPerRecord");
+            for (int round = 1; round <= rounds; round++) {
+                long allocated = allocatedBytes();
+                long started = System.nanoTime();
+                try (PrintStream out = new PrintStream(new FileOutputStream(file.toFile()), false)) {
+                    for (Person person : database.findAll()) {
+                        out.println(person);
+                    }
+                }
+                report("println", round, persons, started, allocated, file);
+
+                allocated = allocatedBytes();
+                started = System.nanoTime();
+                try (PersonWriter writer = new PersonWriter(FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                    for (Person person : database.findAll()) {
+                        writer.write(person);
+                    }
+                }
+                report("channel", round, persons, started, allocated, file);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void report(String writer, int round, int records, long started, long allocated, Path file) throws IOException {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double bytesPerRecord = (double) (allocatedBytes() - allocated) / records;
+        System.out.printf("%s,%d,%d,%.2f,%.0f,%.1f,%.0f%n", writer, round, records, seconds, records / seconds,
+                Files.size(file) / 1e6, bytesPerRecord);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
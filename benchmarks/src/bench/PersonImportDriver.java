@@ -0,0 +1,44 @@
+package bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.SplittableRandom;
+import db.PersonImporter;
+import db.PersonStore;
+
+public class PersonImportDriver {
+    public static void main(String[] args) throws Exception {
+        String store = args.length > 0 ? args[0] : "hash";
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Path file = Files.createTempFile("fines-", ".csv");
+        try {
+            write(file, rows, new SplittableRandom(42));
+            PersonStore database = TaxFinesBenchmark.create(store, rows);
+            PersonImporter.Report report = new PersonImporter(database, threads).importFile(file);
+            System.out.println("store,threads,rows,rejected,persons,fines,seconds,rowsPerSecond");
+            System.out.printf("%s,%d,%d,%d,%d,%d,%.2f,%.0f%n", store, threads, report.rows(), report.rejected(),
+                    report.persons(), report.fines(), report.nanos() / 1e9, report.rowsPerSecond());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void write(Path file, int rows, SplittableRandom random) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            out.write("id,firstName,lastName,birthDate,city,fineType,fineCity\n");
+            for (int i = 0; i < rows; i++) {
+                out.write(String.format("%010d,%s,%s,%02d.%02d.%04d,%s,%s,%s%n",
+                        random.nextInt(rows / 2 + 1),
+                        TaxFinesBenchmark.FIRST_NAMES[random.nextInt(TaxFinesBenchmark.FIRST_NAMES.length)],
+                        TaxFinesBenchmark.LAST_NAMES[random.nextInt(TaxFinesBenchmark.LAST_NAMES.length)],
+                        random.nextInt(1, 29), random.nextInt(1, 13), random.nextInt(1940, 2006),
+                        TaxFinesBenchmark.cityName(random.nextInt(TaxFinesBenchmark.CITIES)),
+                        TaxFinesBenchmark.FINE_TYPES[random.nextInt(TaxFinesBenchmark.FINE_TYPES.length)],
+                        TaxFinesBenchmark.cityName(random.nextInt(TaxFinesBenchmark.CITIES))));
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.SplittableRandom;
+import db.PersonStore;
+
+public class StoreFootprintDriver {
+    public static void main(String[] args) {
+        String store = args.length > 0 ? args[0] : "columnar";
+        int persons = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        long before = usedHeap();
+        long started = System.nanoTime();
+        PersonStore database = TaxFinesBenchmark.create(store, persons);
+        TaxFinesBenchmark.populate(database, persons, new SplittableRandom(42));
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long used = usedHeap() - before;
+
+        System.out.println("store,persons,heapBytes,bytesPerPerson,loadSeconds");
+        System.out.printf("%s,%d,%d,%.1f,%.2f%n", store, database.size(), used, (double) used / persons, seconds);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
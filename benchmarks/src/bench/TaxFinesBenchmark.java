@@ -0,0 +1,135 @@
+package bench;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import db.ColumnarPersonStore;
+import db.ConcurrentPersonStore;
+import db.CountingPersonStore;
+import db.FineAggregator;
+import db.FineReport;
+import db.PersonQuery;
+import db.PersonRepository;
+import db.PersonStore;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TaxFinesBenchmark {
+    static final String[] FINE_TYPES = {"speeding", "parking", "littering", "noise", "tax-evasion", "jaywalking"};
+    static final String[] FIRST_NAMES = {"Ivan", "Olena", "Petro", "Maria", "Taras", "Oksana", "Andrii", "Iryna"};
+    static final String[] LAST_NAMES = {"Shevchenko", "Kovalenko", "Bondarenko", "Tkachenko", "Kravchenko", "Melnyk"};
+    static final int CITIES = 100;
+
+    @Param({"10000000"})
+    private int persons;
+
+    @Param({"hash", "columnar"})
+    private String store;
+
+    private PersonStore database;
+    private CountingPersonStore counters;
+    private City city;
+    private int bornFrom;
+    private int bornTo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = create(store, persons);
+        populate(database, persons, new SplittableRandom(42));
+        city = database.city(cityName(7));
+        bornFrom = BirthDate.parse("01.01.1980");
+        bornTo = BirthDate.parse("31.12.1980");
+        counters = new CountingPersonStore(database);
+    }
+
+    static PersonStore create(String store, int persons) {
+        return switch (store) {
+            case "hash" -> new PersonRepository();
+            case "columnar" -> new ColumnarPersonStore(persons);
+            case "concurrent" -> new ConcurrentPersonStore();
+            default -> throw new IllegalArgumentException("Unknown store: " + store);
+        };
+    }
+
+    static void populate(PersonStore database, int persons, SplittableRandom random) {
+        City[] cities = new City[CITIES];
+        for (int i = 0; i < CITIES; i++) {
+            cities[i] = database.city(cityName(i));
+        }
+        for (int i = 0; i < persons; i++) {
+            String birthDate = String.format("%02d.%02d.%04d", random.nextInt(1, 29), random.nextInt(1, 13), random.nextInt(1940, 2006));
+            Person person = new Person(String.format("%010d", i),
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    birthDate, cities[random.nextInt(CITIES)]);
+            for (int fines = random.nextInt(4); fines > 0; fines--) {
+                person.addFine(new Fine(FINE_TYPES[random.nextInt(FINE_TYPES.length)], cities[random.nextInt(CITIES)]));
+            }
+            database.add(person);
+        }
+    }
+
+    static String cityName(int index) {
+        return "City-" + (char) ('a' + index / 26 % 26) + (char) ('a' + index % 26);
+    }
+
+    @Benchmark
+    public List<Person> findByFineType() {
+        return database.findByFineType("parking");
+    }
+
+    @Benchmark
+    public List<Person> findByCity() {
+        return database.findByCity(city);
+    }
+
+    @Benchmark
+    public List<Person> findByFineCity() {
+        return database.findByFineCity(city);
+    }
+
+    @Benchmark
+    public List<Person> findBornBetweenWithFineIn() {
+        return database.findBornBetweenWithFineIn(bornFrom, bornTo, city);
+    }
+
+    @Benchmark
+    public long adHocQuery() {
+        return new PersonQuery().nameStartsWith("ko").withFine("Parking", city).bornBetween(bornFrom, bornTo).count(database);
+    }
+
+    @Benchmark
+    public List<Person> adHocQueryFirstMatches() {
+        return new PersonQuery().nameStartsWith("ko").withFine("Parking", city).find(database, 20);
+    }
+
+    @Benchmark
+    public List<Person> scanBornBetweenWithFineIn() {
+        List<Person> found = new ArrayList<>();
+        for (Person person : database.findAll()) {
+            if (person.getBirthDay() < bornFrom || person.getBirthDay() > bornTo) continue;
+            for (Fine fine : person.getFines()) {
+                if (fine.getCity().equals(city)) {
+                    found.add(person);
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public FineReport aggregate() {
+        return FineAggregator.aggregate(database);
+    }
+
+    @Benchmark
+    public FineReport countedReport() {
+        return counters.report();
+    }
+}
@@ -0,0 +1,92 @@
+package metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
+
+public final class Metrics {
+    private static final Metrics GLOBAL = new Metrics();
+
+    static {
+        String file = System.getProperty("metrics.file");
+        if (file != null) {
+            Closeable reporter = GLOBAL.reportEvery(Path.of(file), Long.getLong("metrics.period", 60));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    reporter.close();
+                } catch (IOException e) {
+                    System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+                }
+            }));
+        }
+    }
+
+    private final Map<String, Operation> operations = new ConcurrentSkipListMap<>();
+    private final long startedNanos = System.nanoTime();
+
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    public Operation operation(String name) {
+        return operations.computeIfAbsent(name, Operation::new);
+    }
+
+    public void writeText(Appendable out) throws IOException {
+        out.append(String.format("%-28s %10s %12s %12s %12s %12s %12s%n", "operation", "count", "mean us", "p50 us", "p90 us", "p99 us", "max us"));
+        for (Operation operation : operations.values()) {
+            LatencyHistogram.Snapshot snapshot = operation.snapshot();
+            if (snapshot.count() == 0) continue;
+            out.append(String.format(Locale.ROOT, "%-28s %10d %12.1f %12.1f %12.1f %12.1f %12.1f%n", operation.name(), snapshot.count(),
+                    snapshot.meanNanos() / 1e3, snapshot.p50Nanos() / 1e3, snapshot.p90Nanos() / 1e3, snapshot.p99Nanos() / 1e3, snapshot.maxNanos() / 1e3));
+        }
+    }
+
+    public void writeJson(Appendable out) throws IOException {
+        out.append(String.format(Locale.ROOT, "{\"uptimeSeconds\":%.1f,\"operations\":[", (System.nanoTime() - startedNanos) / 1e9));
+        boolean first = true;
+        for (Operation operation : operations.values()) {
+            LatencyHistogram.Snapshot snapshot = operation.snapshot();
+            if (snapshot.count() == 0) continue;
+            if (!first) out.append(',');
+            first = false;
+            out.append(String.format(Locale.ROOT, "{\"name\":\"%s\",\"count\":%d,\"meanNanos\":%.0f,\"p50Nanos\":%d,\"p90Nanos\":%d,\"p99Nanos\":%d,\"maxNanos\":%d}",
+                    operation.name(), snapshot.count(), snapshot.meanNanos(), snapshot.p50Nanos(), snapshot.p90Nanos(), snapshot.p99Nanos(), snapshot.maxNanos()));
+        }
+        out.append("]}\n");
+    }
+
+    public synchronized void writeTo(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().endsWith(".json")) writeJson(out); else writeText(out);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Closeable reportEvery(Path file, long periodSeconds) {
+        if (periodSeconds <= 0) throw new IllegalArgumentException("Report period must be positive: " + periodSeconds);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                writeTo(file);
+            } catch (IOException e) {
+                System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return () -> {
+            scheduler.shutdownNow();
+            writeTo(file);
+        };
+    }
+}
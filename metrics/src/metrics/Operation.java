@@ -0,0 +1,36 @@
+package metrics;
+
+import jdk.jfr.EventType;
+
+public final class Operation {
+    private static final EventType EVENT_TYPE = EventType.getEventType(OperationEvent.class);
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public void recordSince(long startedNanos) {
+        record(System.nanoTime() - startedNanos);
+    }
+
+    public void record(long nanos) {
+        latency.record(nanos);
+        if (EVENT_TYPE.isEnabled()) {
+            OperationEvent event = new OperationEvent();
+            event.operation = name;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    public LatencyHistogram.Snapshot snapshot() {
+        return latency.snapshot();
+    }
+}
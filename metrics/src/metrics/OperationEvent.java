@@ -0,0 +1,17 @@
+package metrics;
+
+import jdk.jfr.*;
+
+@Name("hw5.Operation")
+@Label("Operation")
+@Category("hw5")
+@Description("Latency of one instrumented operation")
+@StackTrace(false)
+class OperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}